@@ -0,0 +1,15 @@
+package FoodFinder;
+
+import FoodFinder.dao.RestaurantDAO;
+
+/**
+ * Command-line maintenance: adds the numeric latitude/longitude columns to Restaurant if they
+ * are missing and backfills them from the coordinates strings. Safe to run repeatedly, e.g.
+ * after older clients have inserted rows or after an interrupted run.
+ */
+public class FoodFinderMigrate {
+    public static void main(String[] args) {
+        int updated = RestaurantDAO.migrateCoordinateColumns();
+        System.out.println("Restaurant coordinates migrated; " + updated + " row(s) backfilled.");
+    }
+}
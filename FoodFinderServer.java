@@ -0,0 +1,22 @@
+package FoodFinder;
+
+import FoodFinder.catalog.Catalog;
+import FoodFinder.server.SearchServer;
+
+/**
+ * Headless entry point: serves the search queries as JSON over HTTP instead of showing the
+ * Swing wizard. The port is the first argument, else -Dfoodfinder.server.port, else 8080.
+ */
+public class FoodFinderServer {
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("foodfinder.server.port", 8080);
+
+        // Load the catalog before accepting requests so the first clients are answered from memory.
+        Catalog.snapshot();
+
+        SearchServer server = new SearchServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2)));
+        server.start();
+        System.out.println("FoodFinder search server listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,109 @@
+package FoodFinder.bench;
+
+import FoodFinder.catalog.CatalogQueryEngine;
+import FoodFinder.catalog.CatalogSnapshot;
+import FoodFinder.dao.CatalogDAO;
+import FoodFinder.dao.MenuDAO;
+import FoodFinder.domain.Restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures restriction filtering throughput of getFilteredFoodItems: the in-memory bitset
+ * path against the SQL NOT EXISTS path.
+ *
+ * Usage: AllergenFilterBenchmark [--sql] [iterations]
+ * Without --sql a synthetic catalog is used and only the in-memory path is measured.
+ */
+public class AllergenFilterBenchmark {
+    public static void main(String[] args) {
+        boolean sql = false;
+        int iterations = 2000;
+        for (String arg : args) {
+            if (arg.equals("--sql")) {
+                sql = true;
+            } else {
+                iterations = Integer.parseInt(arg);
+            }
+        }
+
+        CatalogSnapshot snapshot = sql ? CatalogDAO.loadSnapshot() : syntheticCatalog(400, 5, 12, 40);
+        CatalogQueryEngine engine = new CatalogQueryEngine(snapshot);
+        List<String> allergens = snapshot.allergens().names();
+        List<List<String>> restrictionSets = randomRestrictionSets(allergens, 64, new Random(42));
+        List<String> none = new ArrayList<>();
+
+        System.out.println("Catalog: " + snapshot.restaurantCount() + " restaurants, "
+                + snapshot.menuCount() + " menus, " + snapshot.itemCount() + " items, "
+                + allergens.size() + " allergens");
+
+        // Warm up the JIT before timing.
+        for (int i = 0; i < iterations; i++) {
+            engine.getFilteredFoodItems(none, none, restrictionSets.get(i % restrictionSets.size()));
+        }
+        long start = System.nanoTime();
+        long results = 0;
+        for (int i = 0; i < iterations; i++) {
+            results += engine.getFilteredFoodItems(none, none, restrictionSets.get(i % restrictionSets.size())).size();
+        }
+        report("in-memory bitset", iterations, System.nanoTime() - start, results);
+
+        if (sql) {
+            int sqlIterations = Math.max(1, iterations / 100);
+            start = System.nanoTime();
+            results = 0;
+            for (int i = 0; i < sqlIterations; i++) {
+                results += MenuDAO.getFilteredFoodItems(none, none, restrictionSets.get(i % restrictionSets.size())).size();
+            }
+            report("SQL NOT EXISTS", sqlIterations, System.nanoTime() - start, results);
+        }
+    }
+
+    private static void report(String label, int iterations, long nanos, long results) {
+        double perQueryMicros = nanos / 1000.0 / iterations;
+        System.out.printf("%-18s %8d queries  %10.1f us/query  %10.0f queries/s  (%d rows)%n",
+                label, iterations, perQueryMicros, 1_000_000.0 / perQueryMicros, results);
+    }
+
+    private static List<List<String>> randomRestrictionSets(List<String> allergens, int count, Random random) {
+        List<List<String>> sets = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            List<String> set = new ArrayList<>();
+            int size = 1 + random.nextInt(4);
+            for (int k = 0; k < size && !allergens.isEmpty(); k++) {
+                set.add(allergens.get(random.nextInt(allergens.size())));
+            }
+            sets.add(set);
+        }
+        return sets;
+    }
+
+    static CatalogSnapshot syntheticCatalog(int restaurants, int menusPerRestaurant, int itemsPerMenu, int allergenCount) {
+        Random random = new Random(7);
+        String[] cuisines = {"Italian", "Japanese", "Mexican", "American", "Thai", "Indian"};
+        String[] types = {"Breakfast", "Cafe", "Lunch", "Appetizers", "Drinks", "Dinner", "Sweets", "Lunch/Dinner"};
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        for (int a = 0; a < allergenCount; a++) {
+            builder.addAllergen("ingredient" + a);
+        }
+        int menuId = 0;
+        for (int r = 0; r < restaurants; r++) {
+            builder.addRestaurant(new Restaurant(r, "Restaurant " + r, cuisines[r % cuisines.length],
+                    "$$", "4", 35 + random.nextDouble(), -120 + random.nextDouble()));
+            for (int m = 0; m < menusPerRestaurant; m++) {
+                builder.addMenu(++menuId, r, types[random.nextInt(types.length)]);
+                for (int i = 0; i < itemsPerMenu; i++) {
+                    String item = "Dish " + random.nextInt(restaurants * 3);
+                    builder.addItem(menuId, item);
+                    int ingredients = 2 + random.nextInt(6);
+                    for (int k = 0; k < ingredients; k++) {
+                        builder.addRecipeEntry(menuId, item, "ingredient" + random.nextInt(allergenCount));
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+}
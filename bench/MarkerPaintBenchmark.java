@@ -0,0 +1,131 @@
+package FoodFinder.bench;
+
+import FoodFinder.domain.Restaurant;
+import FoodFinder.map.MapUtils;
+import FoodFinder.map.RestaurantWaypoint;
+import FoodFinder.map.RestaurantWaypointLayer;
+import FoodFinder.map.RestaurantWaypointRenderer;
+import org.jxmapviewer.JXMapViewer;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the frame time of painting restaurant markers onto the map: the old per-marker
+ * drawing (new Color, derived Font and FontMetrics for every marker), the sprite renderer
+ * painting every marker, and the clustering layer. Frames are painted into an offscreen image
+ * at 1x and at 2x (HiDPI) scale.
+ *
+ * Usage: MarkerPaintBenchmark [markers] [frames]
+ * Runs headless; no display or tile server is needed.
+ */
+public class MarkerPaintBenchmark {
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 800;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int markerCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        // Markers spread over roughly the area shown at the default map position.
+        Random random = new Random(42);
+        String[] prices = {"$", "$$", "$$$", "$$$$", "$$$$$"};
+        List<Restaurant> restaurants = new ArrayList<>(markerCount);
+        List<RestaurantWaypoint> waypoints = new ArrayList<>(markerCount);
+        for (int i = 0; i < markerCount; i++) {
+            Restaurant r = new Restaurant(i, "Restaurant " + i, "Cuisine", prices[i % prices.length], "4",
+                    35.2704 + (random.nextDouble() - 0.5) * 0.2, -120.6631 + (random.nextDouble() - 0.5) * 0.3);
+            restaurants.add(r);
+            waypoints.add(new RestaurantWaypoint(r));
+        }
+
+        JXMapViewer map = MapUtils.createMapViewer(new ArrayList<>());
+        map.setSize(WIDTH, HEIGHT);
+        RestaurantWaypointRenderer renderer = new RestaurantWaypointRenderer();
+        renderer.setSelectedRestaurant(0);
+        RestaurantWaypointLayer layer = MapUtils.setRestaurantWaypoints(map, restaurants);
+
+        for (double scale : new double[]{1.0, 2.0}) {
+            BufferedImage image = new BufferedImage((int) (WIDTH * scale), (int) (HEIGHT * scale), BufferedImage.TYPE_INT_ARGB);
+            Rectangle viewport = map.getViewportBounds();
+            // Warm up the JIT before timing.
+            for (int i = 0; i < frames; i++) {
+                paintFrame(image, scale, g -> paintLegacy(g, map, viewport, waypoints));
+                paintFrame(image, scale, g -> paintSprites(g, map, viewport, renderer, waypoints));
+                paintFrame(image, scale, g -> layer.paint(g, map, WIDTH, HEIGHT));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                paintFrame(image, scale, g -> paintLegacy(g, map, viewport, waypoints));
+            }
+            report("legacy markers", scale, frames, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                paintFrame(image, scale, g -> paintSprites(g, map, viewport, renderer, waypoints));
+            }
+            report("sprite markers", scale, frames, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                paintFrame(image, scale, g -> layer.paint(g, map, WIDTH, HEIGHT));
+            }
+            report("clustered layer", scale, frames, System.nanoTime() - start);
+        }
+    }
+
+    private interface Frame {
+        void paint(Graphics2D g);
+    }
+
+    private static void paintFrame(BufferedImage image, double scale, Frame frame) {
+        Graphics2D g = image.createGraphics();
+        g.scale(scale, scale);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        frame.paint(g);
+        g.dispose();
+    }
+
+    private static void paintSprites(Graphics2D g, JXMapViewer map, Rectangle viewport,
+                                     RestaurantWaypointRenderer renderer, List<RestaurantWaypoint> waypoints) {
+        g.translate(-viewport.getX(), -viewport.getY());
+        for (RestaurantWaypoint wp : waypoints) {
+            renderer.paintWaypoint(g, map, wp);
+        }
+        g.translate(viewport.getX(), viewport.getY());
+    }
+
+    /**
+     * The old RestaurantWaypointRenderer.paintWaypoint, inlined.
+     */
+    private static void paintLegacy(Graphics2D g, JXMapViewer map, Rectangle viewport, List<RestaurantWaypoint> waypoints) {
+        g.translate(-viewport.getX(), -viewport.getY());
+        for (RestaurantWaypoint wp : waypoints) {
+            Point2D pt = map.getTileFactory().geoToPixel(wp.getPosition(), map.getZoom());
+            int x = (int) pt.getX();
+            int y = (int) pt.getY();
+            int radius = 10;
+            g.setColor(new Color(0, 0, 139));
+            g.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+            g.setColor(Color.WHITE);
+            Font font = g.getFont().deriveFont(Font.BOLD, 16f);
+            g.setFont(font);
+            FontMetrics fm = g.getFontMetrics();
+            String text = "$";
+            int textWidth = fm.stringWidth(text);
+            int textHeight = fm.getAscent();
+            g.drawString(text, x - textWidth / 2, y + textHeight / 2 - 2);
+        }
+        g.translate(viewport.getX(), viewport.getY());
+    }
+
+    private static void report(String label, double scale, int frames, long nanos) {
+        System.out.printf("%-16s %.0fx %6d frames  %8.2f ms/frame%n", label, scale, frames, nanos / 1e6 / frames);
+    }
+}
@@ -0,0 +1,144 @@
+package FoodFinder.bench;
+
+import FoodFinder.ui.OptionGrid;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Measures the cost of a page flip in the option grid: rebuilding the grid from new buttons
+ * (the old PagedSearchPanel.refreshGrid) against rebinding a fixed OptionGrid. Each flip
+ * includes layout and painting the grid into an offscreen image; the pooled grid paints
+ * only the cells that changed.
+ *
+ * Usage: OptionGridBenchmark [options] [flips]
+ * Runs headless; no display is needed.
+ */
+public class OptionGridBenchmark {
+    private static final int ROWS = 3;
+    private static final int COLUMNS = 4;
+    private static final int WIDTH = 760;
+    private static final int HEIGHT = 360;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int optionCount = args.length > 0 ? Integer.parseInt(args[0]) : 30000;
+        int flips = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        String[] options = new String[optionCount];
+        boolean[] selected = new boolean[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            options[i] = "Dish " + i;
+            selected[i] = i % 7 == 0;
+        }
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+
+        SwingUtilities.invokeAndWait(() -> {
+            int cellsPerPage = ROWS * COLUMNS;
+            int pages = (optionCount + cellsPerPage - 1) / cellsPerPage;
+
+            JPanel rebuilt = new JPanel(new GridLayout(ROWS, COLUMNS, 15, 15));
+            rebuilt.setSize(WIDTH, HEIGHT);
+            OptionGrid pooled = new OptionGrid(ROWS, COLUMNS, new OptionGrid.Model() {
+                public int size() { return optionCount; }
+                public String label(int index) { return options[index]; }
+                public boolean isSelected(int index) { return selected[index]; }
+                public void setSelected(int index, boolean value) { selected[index] = value; }
+            });
+            pooled.setSize(WIDTH, HEIGHT);
+            pooled.doLayout();
+
+            // Warm up the JIT before timing.
+            for (int i = 0; i < flips; i++) {
+                rebuildPage(rebuilt, options, selected, (i % pages) * cellsPerPage, image);
+                flipPooled(pooled, (i % pages) * cellsPerPage, image);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < flips; i++) {
+                rebuildPage(rebuilt, options, selected, (i % pages) * cellsPerPage, image);
+            }
+            report("rebuild grid", flips, System.nanoTime() - start, (long) flips * cellsPerPage);
+
+            start = System.nanoTime();
+            long painted = 0;
+            for (int i = 0; i < flips; i++) {
+                painted += flipPooled(pooled, (i % pages) * cellsPerPage, image);
+            }
+            report("pooled page flip", flips, System.nanoTime() - start, painted);
+
+            // Re-showing the same page after one selection change touches a single cell.
+            start = System.nanoTime();
+            painted = 0;
+            for (int i = 0; i < flips; i++) {
+                int index = pooled.getFirstIndex() + i % cellsPerPage;
+                selected[index] = !selected[index];
+                painted += flipPooled(pooled, pooled.getFirstIndex(), image);
+            }
+            report("pooled toggle", flips, System.nanoTime() - start, painted);
+        });
+    }
+
+    /**
+     * The old refreshGrid: new buttons, fonts, colours and padding panels on every flip.
+     */
+    private static void rebuildPage(JPanel grid, String[] options, boolean[] selected, int first, BufferedImage image) {
+        grid.removeAll();
+        int end = Math.min(first + ROWS * COLUMNS, options.length);
+        for (int i = first; i < end; i++) {
+            JToggleButton btn = new JToggleButton(options[i]);
+            btn.setFont(new Font("Segoe UI", Font.PLAIN, 24));
+            btn.setFocusPainted(false);
+            btn.setSelected(selected[i]);
+            btn.setBackground(selected[i] ? new Color(0xFF6666) : Color.WHITE);
+            btn.setForeground(selected[i] ? Color.WHITE : Color.DARK_GRAY);
+            grid.add(btn);
+        }
+        for (int i = end - first; i < ROWS * COLUMNS; i++) {
+            grid.add(new JPanel());
+        }
+        grid.doLayout();
+        Graphics2D g = image.createGraphics();
+        grid.paint(g);
+        g.dispose();
+    }
+
+    /**
+     * Rebinds the pooled grid and paints only the cells whose state changed.
+     *
+     * @return the number of cells painted
+     */
+    private static int flipPooled(OptionGrid grid, int first, BufferedImage image) {
+        String[] before = new String[grid.getComponentCount()];
+        boolean[] selectedBefore = new boolean[before.length];
+        for (int c = 0; c < before.length; c++) {
+            AbstractButton cell = (AbstractButton) grid.getComponent(c);
+            before[c] = cell.getText();
+            selectedBefore[c] = cell.isSelected();
+        }
+        if (grid.setFirstIndex(first) == 0) {
+            return 0;
+        }
+        int painted = 0;
+        Graphics2D g = image.createGraphics();
+        for (int c = 0; c < before.length; c++) {
+            AbstractButton cell = (AbstractButton) grid.getComponent(c);
+            if (!cell.getText().equals(before[c]) || cell.isSelected() != selectedBefore[c]) {
+                Rectangle r = cell.getBounds();
+                Graphics cg = g.create(r.x, r.y, r.width, r.height);
+                cell.paint(cg);
+                cg.dispose();
+                painted++;
+            }
+        }
+        g.dispose();
+        return painted;
+    }
+
+    private static void report(String label, int flips, long nanos, long cellsPainted) {
+        double perFlipMicros = nanos / 1000.0 / flips;
+        System.out.printf("%-18s %8d flips  %10.1f us/flip  %8.1f cells painted/flip%n",
+                label, flips, perFlipMicros, (double) cellsPainted / flips);
+    }
+}
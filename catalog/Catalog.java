@@ -0,0 +1,68 @@
+package FoodFinder.catalog;
+
+import FoodFinder.dao.CatalogDAO;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the process-wide catalog snapshot. The snapshot is loaded on first use and
+ * reloaded lazily after {@link #invalidate()}, which the DAO write methods call. Writes made
+ * by other processes do not invalidate it, so it is also reloaded once it is older than
+ * foodfinder.catalog.ttlMs (0 or less keeps it until invalidated).
+ */
+public final class Catalog {
+    private static final long TTL_MS = Long.getLong("foodfinder.catalog.ttlMs", 60_000L);
+
+    private static volatile CatalogQueryEngine engine;
+    private static final AtomicLong generation = new AtomicLong();
+
+    private Catalog() {
+    }
+
+    /**
+     * @return a query engine over the current snapshot, loading it if necessary.
+     */
+    public static CatalogQueryEngine queries() {
+        CatalogQueryEngine current = engine;
+        if (current != null && !isExpired(current)) {
+            return current;
+        }
+        synchronized (Catalog.class) {
+            current = engine;
+            if (current == null || isExpired(current)) {
+                long loadGeneration = generation.get();
+                current = new CatalogQueryEngine(CatalogDAO.loadSnapshot());
+                // Only publish if nothing was written while we were loading.
+                if (generation.get() == loadGeneration) {
+                    engine = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    private static boolean isExpired(CatalogQueryEngine current) {
+        return TTL_MS > 0 && System.currentTimeMillis() - current.getSnapshot().getLoadedAtMillis() >= TTL_MS;
+    }
+
+    public static CatalogSnapshot snapshot() {
+        return queries().getSnapshot();
+    }
+
+    /**
+     * @return the current snapshot if one is loaded (even if expired), else null; never touches
+     *         the database
+     */
+    public static CatalogSnapshot loadedSnapshot() {
+        CatalogQueryEngine current = engine;
+        return current == null ? null : current.getSnapshot();
+    }
+
+    /**
+     * Discards the current snapshot so the next query reloads it from the database.
+     */
+    public static void invalidate() {
+        generation.incrementAndGet();
+        engine = null;
+    }
+}
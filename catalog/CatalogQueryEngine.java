@@ -0,0 +1,254 @@
+package FoodFinder.catalog;
+
+import FoodFinder.dao.MenuDAO;
+import FoodFinder.domain.Menu;
+import FoodFinder.domain.MenuItem;
+import FoodFinder.domain.Restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers the wizard's search queries from a {@link CatalogSnapshot} instead of the database.
+ * Each method has the same semantics as its SQL counterpart in RestaurantDAO / MenuDAO,
+ * including case-insensitive matching of cuisines, meal types and allergen names.
+ */
+public class CatalogQueryEngine {
+    private final CatalogSnapshot snapshot;
+
+    public CatalogQueryEngine(CatalogSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Equivalent to SELECT DISTINCT cuisine FROM Restaurant.
+     */
+    public List<String> getDistinctCuisines() {
+        return new ArrayList<>(snapshot.cuisines().names());
+    }
+
+    /**
+     * Meal types offered by restaurants of the given cuisines, or all meal types if none are given.
+     */
+    public List<String> getMealTypesForCuisines(List<String> cuisines) {
+        NameDictionary types = snapshot.mealTypes();
+        if (cuisines.isEmpty()) {
+            return new ArrayList<>(types.names());
+        }
+        boolean[] cuisineMask = snapshot.cuisines().mask(cuisines);
+        boolean[] seen = new boolean[types.size()];
+        for (int m = 0; m < snapshot.menuCount(); m++) {
+            int type = snapshot.menuType(m);
+            if (type >= 0 && matches(cuisineMask, snapshot.restaurantCuisine(snapshot.menuRestaurant(m)))) {
+                seen[type] = true;
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (int t = 0; t < seen.length; t++) {
+            if (seen[t]) {
+                result.add(types.name(t));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Distinct names of items served by the selected cuisines and meal types that contain
+     * none of the selected restrictions. Empty selection lists do not filter.
+     */
+    public List<String> getFilteredFoodItems(List<String> selectedCuisines,
+                                             List<String> selectedMealTypes,
+                                             List<String> selectedRestrictions) {
+        Filter filter = new Filter(selectedCuisines, selectedMealTypes, null, selectedRestrictions);
+        List<String> foodItems = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int r = 0; r < snapshot.restaurantCount(); r++) {
+            if (!filter.acceptsRestaurant(r)) continue;
+            for (int m = snapshot.restaurantMenuStart(r); m < snapshot.restaurantMenuStart(r + 1); m++) {
+                if (!filter.acceptsMenu(m)) continue;
+                for (int i = snapshot.menuItemStart(m); i < snapshot.menuItemStart(m + 1); i++) {
+                    if (filter.acceptsItem(i) && seen.add(snapshot.itemNameLower(i))) {
+                        foodItems.add(snapshot.itemName(i));
+                    }
+                }
+            }
+        }
+        return foodItems;
+    }
+
+    /**
+     * Restaurants with at least one item matching every selection; empty when no food item is selected.
+     */
+    public List<Restaurant> getFilteredRestaurants(List<String> selectedCuisines,
+                                                   List<String> selectedMealTypes,
+                                                   List<String> selectedFoodItems,
+                                                   List<String> selectedRestrictions) {
+        return new ArrayList<>(getFilteredRestaurantsWithMatchingItems(
+                selectedCuisines, selectedMealTypes, selectedFoodItems, selectedRestrictions).keySet());
+    }
+
+    /**
+     * In-memory counterpart of MenuDAO.getMenusForRestaurant: the restaurant's menus with their
+     * items and recipe allergens, or an empty list if the restaurant is unknown.
+     */
+    public List<Menu> getMenusForRestaurant(int restaurantId) {
+        List<Menu> menus = new ArrayList<>();
+        int r = snapshot.restaurantIndex(restaurantId);
+        if (r < 0) {
+            return menus;
+        }
+        for (int m = snapshot.restaurantMenuStart(r); m < snapshot.restaurantMenuStart(r + 1); m++) {
+            List<MenuItem> items = new ArrayList<>();
+            for (int i = snapshot.menuItemStart(m); i < snapshot.menuItemStart(m + 1); i++) {
+                List<String> allergens = snapshot.itemAllergens(i);
+                items.add(new MenuItem(snapshot.itemName(i), MenuDAO.describeRecipe(allergens), allergens));
+            }
+            menus.add(new Menu(snapshot.menuId(m), snapshot.mealTypes().name(snapshot.menuType(m)), items));
+        }
+        return menus;
+    }
+
+    /**
+     * Distinct names of the items of one restaurant that match the meal type, food item
+     * and restriction selections.
+     */
+    public List<String> getMatchingItemsForRestaurant(int restaurantId,
+                                                      List<String> selectedMealTypes,
+                                                      List<String> selectedFoodItems,
+                                                      List<String> selectedRestrictions) {
+        List<String> items = new ArrayList<>();
+        int r = snapshot.restaurantIndex(restaurantId);
+        if (r < 0 || selectedFoodItems.isEmpty()) {
+            return items;
+        }
+        Filter filter = new Filter(new ArrayList<>(), selectedMealTypes, selectedFoodItems, selectedRestrictions);
+        collectMatchingItems(filter, r, items);
+        return items;
+    }
+
+    /**
+     * Finds the restaurants matching the wizard selections together with the names of their
+     * matching items.
+     *
+     * @return matching restaurants (in rid order) mapped to their matching item names
+     */
+    public Map<Restaurant, List<String>> getFilteredRestaurantsWithMatchingItems(List<String> selectedCuisines,
+                                                                               List<String> selectedMealTypes,
+                                                                               List<String> selectedFoodItems,
+                                                                               List<String> selectedRestrictions) {
+        Map<Restaurant, List<String>> results = new LinkedHashMap<>();
+        if (selectedFoodItems.isEmpty()) {
+            return results;
+        }
+        Filter filter = new Filter(selectedCuisines, selectedMealTypes, selectedFoodItems, selectedRestrictions);
+
+        // Walk only the postings of names matching a selected substring rather than every item.
+        ItemNameIndex index = snapshot.itemNameIndex();
+        int[] candidates = new int[16];
+        int count = 0;
+        for (int n = 0; n < filter.nameMatches.length; n++) {
+            if (!filter.nameMatches[n]) continue;
+            for (int k = index.nameItemStart(n); k < index.nameItemStart(n + 1); k++) {
+                int item = index.nameItem(k);
+                int menu = snapshot.itemMenu(item);
+                if (filter.acceptsRestaurant(snapshot.menuRestaurant(menu)) && filter.acceptsMenu(menu)
+                        && filter.acceptsItem(item)) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                    }
+                    candidates[count++] = item;
+                }
+            }
+        }
+
+        // Items are stored grouped by menu and menus by restaurant, so sorting by item index
+        // groups the hits by restaurant in catalog order.
+        Arrays.sort(candidates, 0, count);
+        int currentRestaurant = -1;
+        List<String> items = null;
+        Set<String> seen = new HashSet<>();
+        for (int c = 0; c < count; c++) {
+            int item = candidates[c];
+            int r = snapshot.menuRestaurant(snapshot.itemMenu(item));
+            if (r != currentRestaurant) {
+                currentRestaurant = r;
+                items = new ArrayList<>();
+                seen.clear();
+                results.put(snapshot.restaurant(r), items);
+            }
+            if (seen.add(snapshot.itemNameLower(item))) {
+                items.add(snapshot.itemName(item));
+            }
+        }
+        return results;
+    }
+
+    private void collectMatchingItems(Filter filter, int r, List<String> out) {
+        Set<String> seen = new HashSet<>();
+        for (int m = snapshot.restaurantMenuStart(r); m < snapshot.restaurantMenuStart(r + 1); m++) {
+            if (!filter.acceptsMenu(m)) continue;
+            for (int i = snapshot.menuItemStart(m); i < snapshot.menuItemStart(m + 1); i++) {
+                if (filter.acceptsItem(i) && seen.add(snapshot.itemNameLower(i))) {
+                    out.add(snapshot.itemName(i));
+                }
+            }
+        }
+    }
+
+    private static boolean matches(boolean[] mask, int ordinal) {
+        return mask == null || (ordinal >= 0 && mask[ordinal]);
+    }
+
+    /**
+     * The selection lists of one query, pre-resolved against the snapshot's dictionaries.
+     * A null mask or pattern list means "do not filter on this".
+     */
+    private class Filter {
+        final boolean[] cuisineMask;
+        final boolean[] typeMask;
+        // Mask over the item-name index: which distinct names contain a selected food item.
+        final boolean[] nameMatches;
+        final long[] restrictionBits;
+
+        Filter(List<String> cuisines, List<String> mealTypes, List<String> foodItems, List<String> restrictions) {
+            cuisineMask = cuisines.isEmpty() ? null : snapshot.cuisines().mask(cuisines);
+            typeMask = mealTypes.isEmpty() ? null : snapshot.mealTypes().mask(mealTypes);
+            restrictionBits = restrictions.isEmpty() ? null : snapshot.allergens().bitMask(restrictions);
+            if (foodItems == null) {
+                nameMatches = null;
+            } else {
+                String[] patterns = new String[foodItems.size()];
+                for (int k = 0; k < patterns.length; k++) {
+                    patterns[k] = foodItems.get(k).toLowerCase(Locale.ROOT);
+                }
+                nameMatches = snapshot.itemNameIndex().matchNames(patterns);
+            }
+        }
+
+        boolean acceptsRestaurant(int r) {
+            return matches(cuisineMask, snapshot.restaurantCuisine(r));
+        }
+
+        boolean acceptsMenu(int m) {
+            return matches(typeMask, snapshot.menuType(m));
+        }
+
+        boolean acceptsItem(int i) {
+            if (nameMatches != null && !nameMatches[snapshot.itemNameIndex().nameId(i)]) {
+                return false;
+            }
+            // A single AND of the item's allergen bitset against the user's restriction mask.
+            return restrictionBits == null || !snapshot.itemHasAnyAllergen(i, restrictionBits);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package FoodFinder.catalog;
+
+import FoodFinder.domain.Restaurant;
+import FoodFinder.geo.RestaurantSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable in-memory copy of the Restaurant/Menu/Item/Recipe/Allergen tables.
+ *
+ * Rows are stored column-wise in parallel arrays. Menus are grouped by restaurant and
+ * items by menu, so the menus of restaurant r are the index range
+ * [restaurantMenuStart(r), restaurantMenuStart(r + 1)) and likewise for the items of a menu.
+ * Cuisines, meal types and allergens are dictionary-encoded as small int ordinals.
+ */
+public final class CatalogSnapshot {
+    private final Restaurant[] restaurants;
+    private final Map<Integer, Integer> restaurantIndexById;
+    private final int[] restaurantCuisine;
+    private final int[] restaurantMenuStart;
+
+    private final int[] menuIds;
+    private final int[] menuRestaurant;
+    private final int[] menuType;
+    private final int[] menuItemStart;
+
+    private final String[] itemNames;
+    private final String[] itemNamesLower;
+    private final int[] itemMenu;
+    // Allergen set of each item as a bitset of allergen ordinals, allergenWords longs per item.
+    private final long[] itemAllergenBits;
+    private final int allergenWords;
+    private final ItemNameIndex itemNameIndex;
+    private final RestaurantSpatialIndex spatialIndex;
+
+    private final NameDictionary cuisines;
+    private final NameDictionary mealTypes;
+    private final NameDictionary allergens;
+    private final NameDictionary foodItems;
+    private final long loadedAtMillis;
+    private final long version;
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    private CatalogSnapshot(Builder b) {
+        this.loadedAtMillis = System.currentTimeMillis();
+        this.version = versions.incrementAndGet();
+
+        // Restaurants, in load order.
+        restaurants = b.restaurants.toArray(new Restaurant[0]);
+        restaurantIndexById = new HashMap<>(restaurants.length * 2);
+        NameDictionary.Builder cuisineDict = new NameDictionary.Builder();
+        restaurantCuisine = new int[restaurants.length];
+        for (int r = 0; r < restaurants.length; r++) {
+            restaurantIndexById.put(restaurants[r].id, r);
+            restaurantCuisine[r] = cuisineDict.intern(restaurants[r].cuisine);
+        }
+        cuisines = cuisineDict.build();
+
+        // Menus, grouped by restaurant. Menus of unknown restaurants are dropped, as the joins would.
+        List<int[]> menuRows = new ArrayList<>(b.menuRows.size());
+        NameDictionary.Builder typeDict = new NameDictionary.Builder();
+        for (int i = 0; i < b.menuRows.size(); i++) {
+            Integer r = restaurantIndexById.get(b.menuRows.get(i)[1]);
+            if (r != null) {
+                menuRows.add(new int[]{b.menuRows.get(i)[0], r, typeDict.intern(b.menuTypes.get(i))});
+            }
+        }
+        mealTypes = typeDict.build();
+        menuRows.sort((x, y) -> x[1] != y[1] ? Integer.compare(x[1], y[1]) : Integer.compare(x[0], y[0]));
+        menuIds = new int[menuRows.size()];
+        menuRestaurant = new int[menuRows.size()];
+        menuType = new int[menuRows.size()];
+        Map<Integer, Integer> menuIndexById = new HashMap<>(menuRows.size() * 2);
+        for (int m = 0; m < menuRows.size(); m++) {
+            int[] row = menuRows.get(m);
+            menuIds[m] = row[0];
+            menuRestaurant[m] = row[1];
+            menuType[m] = row[2];
+            menuIndexById.put(row[0], m);
+        }
+        restaurantMenuStart = ranges(menuRestaurant, restaurants.length);
+
+        // Items, grouped by menu.
+        List<Object[]> itemRows = new ArrayList<>(b.itemMenuIds.size());
+        for (int i = 0; i < b.itemMenuIds.size(); i++) {
+            Integer m = menuIndexById.get(b.itemMenuIds.get(i));
+            if (m != null && b.itemNames.get(i) != null) {
+                itemRows.add(new Object[]{m, b.itemNames.get(i)});
+            }
+        }
+        itemRows.sort((x, y) -> Integer.compare((Integer) x[0], (Integer) y[0]));
+        itemNames = new String[itemRows.size()];
+        itemNamesLower = new String[itemRows.size()];
+        itemMenu = new int[itemRows.size()];
+        Map<String, Integer> itemIndexByKey = new HashMap<>(itemRows.size() * 2);
+        for (int i = 0; i < itemRows.size(); i++) {
+            itemMenu[i] = (Integer) itemRows.get(i)[0];
+            itemNames[i] = (String) itemRows.get(i)[1];
+            itemNamesLower[i] = NameDictionary.key(itemNames[i]);
+            itemIndexByKey.put(itemKey(menuIds[itemMenu[i]], itemNames[i]), i);
+        }
+        menuItemStart = ranges(itemMenu, menuIds.length);
+
+        // Recipes, precomputed as one allergen bitset per item.
+        NameDictionary.Builder allergenDict = new NameDictionary.Builder();
+        for (String name : b.allergenNames) {
+            allergenDict.intern(name);
+        }
+        int[] recipeItem = new int[b.recipeMenuIds.size()];
+        int[] recipeAllergen = new int[b.recipeMenuIds.size()];
+        int recipeCount = 0;
+        for (int i = 0; i < b.recipeMenuIds.size(); i++) {
+            Integer item = itemIndexByKey.get(itemKey(b.recipeMenuIds.get(i), b.recipeItemNames.get(i)));
+            int allergen = allergenDict.intern(b.recipeIngredients.get(i));
+            if (item != null && allergen >= 0) {
+                recipeItem[recipeCount] = item;
+                recipeAllergen[recipeCount] = allergen;
+                recipeCount++;
+            }
+        }
+        allergens = allergenDict.build();
+        allergenWords = NameDictionary.wordsFor(allergens.size());
+        itemAllergenBits = new long[itemNames.length * allergenWords];
+        for (int i = 0; i < recipeCount; i++) {
+            int allergen = recipeAllergen[i];
+            itemAllergenBits[recipeItem[i] * allergenWords + (allergen >>> 6)] |= 1L << allergen;
+        }
+
+        NameDictionary.Builder foodItemDict = new NameDictionary.Builder();
+        for (String name : itemNames) {
+            foodItemDict.intern(name);
+        }
+        foodItems = foodItemDict.build();
+        itemNameIndex = new ItemNameIndex(itemNamesLower);
+        spatialIndex = new RestaurantSpatialIndex(Arrays.asList(restaurants));
+    }
+
+    private static String itemKey(int menuId, String itemName) {
+        return menuId + "\u0000" + itemName;
+    }
+
+    // Given a sorted group column, returns start offsets so group g spans [start[g], start[g + 1]).
+    private static int[] ranges(int[] groupOf, int groupCount) {
+        int[] start = new int[groupCount + 1];
+        for (int g : groupOf) {
+            start[g + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            start[g + 1] += start[g];
+        }
+        return start;
+    }
+
+    // -------------------- Restaurants --------------------
+
+    public int restaurantCount() { return restaurants.length; }
+    public Restaurant restaurant(int r) { return restaurants[r]; }
+    public int restaurantCuisine(int r) { return restaurantCuisine[r]; }
+    public int restaurantMenuStart(int r) { return restaurantMenuStart[r]; }
+    public RestaurantSpatialIndex spatialIndex() { return spatialIndex; }
+
+    /**
+     * @return the index of the restaurant with the given rid, or -1 if it is not in the snapshot.
+     */
+    public int restaurantIndex(int rid) {
+        Integer r = restaurantIndexById.get(rid);
+        return r == null ? -1 : r;
+    }
+
+    public List<Restaurant> getRestaurants() {
+        return Collections.unmodifiableList(Arrays.asList(restaurants));
+    }
+
+    // -------------------- Menus --------------------
+
+    public int menuCount() { return menuIds.length; }
+    public int menuId(int m) { return menuIds[m]; }
+    public int menuRestaurant(int m) { return menuRestaurant[m]; }
+    public int menuType(int m) { return menuType[m]; }
+    public int menuItemStart(int m) { return menuItemStart[m]; }
+
+    // -------------------- Items --------------------
+
+    public int itemCount() { return itemNames.length; }
+    public String itemName(int i) { return itemNames[i]; }
+    public String itemNameLower(int i) { return itemNamesLower[i]; }
+    public int itemMenu(int i) { return itemMenu[i]; }
+    public ItemNameIndex itemNameIndex() { return itemNameIndex; }
+
+    /**
+     * @param mask a bitset of allergen ordinals, as built by {@code allergens().bitMask(...)}
+     * @return true if item i contains any allergen in the mask
+     */
+    public boolean itemHasAnyAllergen(int i, long[] mask) {
+        int base = i * allergenWords;
+        for (int w = 0; w < allergenWords; w++) {
+            if ((itemAllergenBits[base + w] & mask[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the names of the allergens in item i's recipe, in allergen ordinal order
+     */
+    public List<String> itemAllergens(int i) {
+        List<String> names = new ArrayList<>();
+        int base = i * allergenWords;
+        for (int w = 0; w < allergenWords; w++) {
+            for (long bits = itemAllergenBits[base + w]; bits != 0; bits &= bits - 1) {
+                names.add(allergens.name((w << 6) + Long.numberOfTrailingZeros(bits)));
+            }
+        }
+        return names;
+    }
+
+    // -------------------- Dictionaries --------------------
+
+    public NameDictionary cuisines() { return cuisines; }
+    public NameDictionary mealTypes() { return mealTypes; }
+    public NameDictionary allergens() { return allergens; }
+    public NameDictionary foodItems() { return foodItems; }
+
+    public long getLoadedAtMillis() { return loadedAtMillis; }
+
+    /**
+     * @return a number identifying this snapshot, greater than that of any earlier snapshot;
+     *         suitable for keying results computed from it
+     */
+    public long getVersion() { return version; }
+
+    // -------------------- Builder --------------------
+
+    /**
+     * Collects raw table rows in any order; {@link #build()} links and compacts them.
+     */
+    public static class Builder {
+        private final List<Restaurant> restaurants = new ArrayList<>();
+        private final List<int[]> menuRows = new ArrayList<>();
+        private final List<String> menuTypes = new ArrayList<>();
+        private final List<Integer> itemMenuIds = new ArrayList<>();
+        private final List<String> itemNames = new ArrayList<>();
+        private final List<String> allergenNames = new ArrayList<>();
+        private final List<Integer> recipeMenuIds = new ArrayList<>();
+        private final List<String> recipeItemNames = new ArrayList<>();
+        private final List<String> recipeIngredients = new ArrayList<>();
+
+        public Builder addRestaurant(Restaurant restaurant) {
+            restaurants.add(restaurant);
+            return this;
+        }
+
+        public Builder addMenu(int menuId, int restaurantId, String type) {
+            menuRows.add(new int[]{menuId, restaurantId});
+            menuTypes.add(type);
+            return this;
+        }
+
+        public Builder addItem(int menuId, String itemName) {
+            itemMenuIds.add(menuId);
+            itemNames.add(itemName);
+            return this;
+        }
+
+        public Builder addAllergen(String ingredientName) {
+            allergenNames.add(ingredientName);
+            return this;
+        }
+
+        public Builder addRecipeEntry(int menuId, String itemName, String ingredientName) {
+            recipeMenuIds.add(menuId);
+            recipeItemNames.add(itemName);
+            recipeIngredients.add(ingredientName);
+            return this;
+        }
+
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package FoodFinder.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trigram inverted index over the distinct (lowercased) item names of a catalog snapshot.
+ *
+ * Replaces LOWER(I.iname) LIKE '%x%' scans: a substring of three or more characters is
+ * resolved by intersecting the posting lists of its trigrams and verifying the few
+ * remaining candidates. Shorter substrings fall back to scanning the distinct names.
+ */
+public final class ItemNameIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] names;
+    private final int[] itemNameId;
+    // Items grouped by name id: the items named n are nameItems[nameItemStart[n] .. nameItemStart[n + 1]).
+    private final int[] nameItemStart;
+    private final int[] nameItems;
+    private final Map<Long, int[]> postings;
+
+    ItemNameIndex(String[] itemNamesLower) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        itemNameId = new int[itemNamesLower.length];
+        for (int i = 0; i < itemNamesLower.length; i++) {
+            Integer id = ids.get(itemNamesLower[i]);
+            if (id == null) {
+                id = distinct.size();
+                ids.put(itemNamesLower[i], id);
+                distinct.add(itemNamesLower[i]);
+            }
+            itemNameId[i] = id;
+        }
+        names = distinct.toArray(new String[0]);
+
+        nameItemStart = new int[names.length + 1];
+        for (int id : itemNameId) {
+            nameItemStart[id + 1]++;
+        }
+        for (int n = 0; n < names.length; n++) {
+            nameItemStart[n + 1] += nameItemStart[n];
+        }
+        nameItems = new int[itemNameId.length];
+        int[] fill = Arrays.copyOf(nameItemStart, names.length);
+        for (int i = 0; i < itemNameId.length; i++) {
+            nameItems[fill[itemNameId[i]]++] = i;
+        }
+
+        // Name ids are added in increasing order, so every posting list ends up sorted.
+        Map<Long, IntList> building = new HashMap<>();
+        for (int n = 0; n < names.length; n++) {
+            String name = names[n];
+            for (int k = 0; k + 3 <= name.length(); k++) {
+                IntList list = building.computeIfAbsent(trigram(name, k), t -> new IntList());
+                list.addIfLast(n);
+            }
+        }
+        postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<Long, IntList> entry : building.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    private static long trigram(String s, int k) {
+        return ((long) s.charAt(k) << 32) | ((long) s.charAt(k + 1) << 16) | s.charAt(k + 2);
+    }
+
+    public int nameCount() {
+        return names.length;
+    }
+
+    public String name(int nameId) {
+        return names[nameId];
+    }
+
+    public int nameId(int item) {
+        return itemNameId[item];
+    }
+
+    public int nameItemStart(int nameId) {
+        return nameItemStart[nameId];
+    }
+
+    public int nameItem(int k) {
+        return nameItems[k];
+    }
+
+    /**
+     * @param lowerPatterns lowercased substrings to look for
+     * @return a mask over name ids, true where the name contains at least one of the patterns
+     */
+    public boolean[] matchNames(String[] lowerPatterns) {
+        boolean[] matches = new boolean[names.length];
+        for (String pattern : lowerPatterns) {
+            if (pattern.length() < 3) {
+                for (int n = 0; n < names.length; n++) {
+                    if (!matches[n] && names[n].contains(pattern)) {
+                        matches[n] = true;
+                    }
+                }
+                continue;
+            }
+            for (int n : candidates(pattern)) {
+                if (!matches[n] && names[n].contains(pattern)) {
+                    matches[n] = true;
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Intersection of the posting lists of every trigram in the pattern, smallest lists first.
+    private int[] candidates(String pattern) {
+        int count = pattern.length() - 2;
+        int[][] lists = new int[count][];
+        for (int k = 0; k < count; k++) {
+            int[] list = postings.get(trigram(pattern, k));
+            if (list == null) {
+                return EMPTY;
+            }
+            lists[k] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists[0];
+        for (int k = 1; k < lists.length && result.length > 0; k++) {
+            result = intersect(result, lists[k]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void addIfLast(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return; // Same trigram repeated within one name.
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
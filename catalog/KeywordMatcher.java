@@ -0,0 +1,188 @@
+package FoodFinder.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds occurrences of a fixed set of keywords in text, ignoring case, in one pass.
+ *
+ * An Aho-Corasick automaton over the lowercased keywords: scanning a text of length n reports
+ * every keyword occurrence in O(n + occurrences), however many keywords there are. Overlaps are
+ * resolved leftmost-longest, so "peanut" and "peanut butter" in "peanut butter" give one match.
+ * Matchers are immutable; forKeywords() caches one per keyword set.
+ */
+public final class KeywordMatcher {
+    private static final int CACHE_LIMIT = 64;
+    private static final Map<List<String>, KeywordMatcher> CACHE = new ConcurrentHashMap<>();
+    private static final int[] NONE = new int[0];
+
+    // Goto function: the children of node s are keys[s][i] -> targets[s][i], keys sorted.
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    // Length of the keyword ending at the node, or 0 if none does.
+    private final int[] keywordLength;
+    // Nearest node on the failure chain at which a keyword ends, or -1.
+    private final int[] outputLink;
+
+    /**
+     * @return the matcher for the given keywords (case and duplicates ignored), built on first use
+     */
+    public static KeywordMatcher forKeywords(Collection<String> keywords) {
+        List<String> key = normalize(keywords);
+        KeywordMatcher matcher = CACHE.get(key);
+        if (matcher == null) {
+            if (CACHE.size() >= CACHE_LIMIT) {
+                CACHE.clear();
+            }
+            matcher = new KeywordMatcher(key);
+            CACHE.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    private static List<String> normalize(Collection<String> keywords) {
+        List<String> lower = new ArrayList<>();
+        for (String keyword : keywords) {
+            String k = lowerCase(keyword);
+            if (!k.isEmpty() && !lower.contains(k)) {
+                lower.add(k);
+            }
+        }
+        lower.sort(null);
+        return lower;
+    }
+
+    private KeywordMatcher(List<String> keywords) {
+        // Build the trie.
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        lengths.add(0);
+        for (String keyword : keywords) {
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer next = children.get(node).get(keyword.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    lengths.add(0);
+                    children.get(node).put(keyword.charAt(i), next);
+                }
+                node = next;
+            }
+            lengths.set(node, keyword.length());
+        }
+        int size = children.size();
+        keys = new char[size][];
+        targets = new int[size][];
+        keywordLength = new int[size];
+        for (int s = 0; s < size; s++) {
+            TreeMap<Character, Integer> map = children.get(s);
+            keys[s] = new char[map.size()];
+            targets[s] = new int[map.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : map.entrySet()) {
+                keys[s][i] = child.getKey();
+                targets[s][i] = child.getValue();
+                i++;
+            }
+            keywordLength[s] = lengths.get(s);
+        }
+
+        // Failure and output links, breadth first so a node's links are set before its children's.
+        fail = new int[size];
+        outputLink = new int[size];
+        outputLink[0] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int i = 0; i < keys[s].length; i++) {
+                char c = keys[s][i];
+                int child = targets[s][i];
+                int f = fail[s];
+                while (f != 0 && step(f, c) < 0) {
+                    f = fail[f];
+                }
+                int target = step(f, c);
+                fail[child] = target >= 0 ? target : 0;
+                outputLink[child] = keywordLength[fail[child]] > 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    // The child of node s for c, or -1.
+    private int step(int s, char c) {
+        int i = Arrays.binarySearch(keys[s], c);
+        return i >= 0 ? targets[s][i] : -1;
+    }
+
+    /**
+     * Finds the keyword occurrences in the text, non-overlapping and leftmost-longest first.
+     *
+     * @return the matches as {start0, end0, start1, end1, ...} in text order, ends exclusive
+     */
+    public int[] find(CharSequence text) {
+        int n = text.length();
+        if (keys[0].length == 0 || n == 0) {
+            return NONE;
+        }
+        // The longest keyword starting at each position, as an exclusive end (0 if none).
+        int[] longestEnd = null;
+        int s = 0;
+        for (int i = 0; i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(s, c)) < 0 && s != 0) {
+                s = fail[s];
+            }
+            s = Math.max(next, 0);
+            for (int out = keywordLength[s] > 0 ? s : outputLink[s]; out > 0; out = outputLink[out]) {
+                if (longestEnd == null) {
+                    longestEnd = new int[n];
+                }
+                int start = i + 1 - keywordLength[out];
+                longestEnd[start] = Math.max(longestEnd[start], i + 1);
+            }
+        }
+        if (longestEnd == null) {
+            return NONE;
+        }
+        int[] matches = new int[8];
+        int count = 0;
+        for (int i = 0; i < n; ) {
+            if (longestEnd[i] > i) {
+                if (count + 2 > matches.length) {
+                    matches = Arrays.copyOf(matches, matches.length * 2);
+                }
+                matches[count++] = i;
+                matches[count++] = longestEnd[i];
+                i = longestEnd[i];
+            } else {
+                i++;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // Char-by-char lowercasing keeps keyword and text offsets aligned, unlike String.toLowerCase().
+    private static String lowerCase(String s) {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
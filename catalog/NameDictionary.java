@@ -0,0 +1,113 @@
+package FoodFinder.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps a set of names (cuisines, meal types, allergens, ...) to dense ordinals 0..size-1.
+ * Lookups are case-insensitive, mirroring the database collation; the first spelling
+ * seen for a name is the one reported back.
+ */
+public final class NameDictionary {
+    private final String[] names;
+    private final Map<String, Integer> ordinals;
+
+    private NameDictionary(String[] names, Map<String, Integer> ordinals) {
+        this.names = names;
+        this.ordinals = ordinals;
+    }
+
+    static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the name for the ordinal, or null for -1, the ordinal stored for a NULL name
+     */
+    public String name(int ordinal) {
+        return ordinal < 0 ? null : names[ordinal];
+    }
+
+    /**
+     * @return the ordinal of the given name, or -1 if it is unknown (or null).
+     */
+    public int ordinal(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer ordinal = ordinals.get(key(name));
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public List<String> names() {
+        return Collections.unmodifiableList(java.util.Arrays.asList(names));
+    }
+
+    /**
+     * Builds a membership mask over this dictionary for the given names.
+     * Names that are not in the dictionary are ignored.
+     */
+    public boolean[] mask(List<String> selected) {
+        boolean[] mask = new boolean[names.length];
+        for (String name : selected) {
+            int ordinal = ordinal(name);
+            if (ordinal >= 0) {
+                mask[ordinal] = true;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Builds a bitset over this dictionary's ordinals (bit k of word k / 64) for the given names.
+     * Names that are not in the dictionary are ignored.
+     */
+    public long[] bitMask(List<String> selected) {
+        long[] bits = new long[wordsFor(names.length)];
+        for (String name : selected) {
+            int ordinal = ordinal(name);
+            if (ordinal >= 0) {
+                bits[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        return bits;
+    }
+
+    static int wordsFor(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> ordinals = new HashMap<>();
+
+        /**
+         * Adds the name if it is new and returns its ordinal; null names map to -1.
+         */
+        int intern(String name) {
+            if (name == null) {
+                return -1;
+            }
+            String key = key(name);
+            Integer ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                ordinal = names.size();
+                names.add(name);
+                ordinals.put(key, ordinal);
+            }
+            return ordinal;
+        }
+
+        NameDictionary build() {
+            return new NameDictionary(names.toArray(new String[0]), new HashMap<>(ordinals));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package FoodFinder.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An in-process copy of the Allergen table: case-insensitive name to ids (a name may occur
+ * more than once), id to name, and the distinct names in table order.
+ *
+ * The table changes rarely, so one shared dictionary is loaded on first use and reloaded once
+ * it is older than -Dfoodfinder.allergens.ttlMs (default 10 minutes). A lookup that misses
+ * (an allergen added since) may force a reload, but at most once per
+ * -Dfoodfinder.allergens.missReloadMs (default 30 seconds), so writes naming ingredients that
+ * are simply not allergens do not rescan the table each time.
+ */
+public class AllergenDictionary {
+    private static final long TTL_MS = Long.getLong("foodfinder.allergens.ttlMs", 600_000L);
+    private static final long MISS_RELOAD_MS = Long.getLong("foodfinder.allergens.missReloadMs", 30_000L);
+    private static final int[] NO_IDS = new int[0];
+
+    private static volatile AllergenDictionary current;
+
+    private final Map<String, int[]> idsByName;
+    private final Map<Integer, String> namesById;
+    private final List<String> names;
+    private final long loadedAtMillis;
+
+    private AllergenDictionary(Map<String, int[]> idsByName, Map<Integer, String> namesById, List<String> names) {
+        this.idsByName = idsByName;
+        this.namesById = namesById;
+        this.names = Collections.unmodifiableList(names);
+        this.loadedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the shared dictionary, loading it on a pooled connection if it is missing or stale
+     */
+    public static AllergenDictionary get() {
+        AllergenDictionary dictionary = current;
+        if (isFresh(dictionary)) {
+            return dictionary;
+        }
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            return get(conn);
+        } catch (Exception e) {
+            throw new RuntimeException("Error loading allergens: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same as get(), but loads on the caller's connection so it can be used mid-transaction.
+     */
+    static AllergenDictionary get(Connection conn) throws Exception {
+        AllergenDictionary dictionary = current;
+        return isFresh(dictionary) ? dictionary : reload(conn);
+    }
+
+    /**
+     * Reloads the shared dictionary after a lookup missed, unless it was loaded within the last
+     * missReloadMs, in which case the current one is returned.
+     */
+    static synchronized AllergenDictionary reloadAfterMiss(Connection conn) throws Exception {
+        AllergenDictionary dictionary = current;
+        if (dictionary != null && System.currentTimeMillis() - dictionary.loadedAtMillis < MISS_RELOAD_MS) {
+            return dictionary;
+        }
+        return reload(conn);
+    }
+
+    /**
+     * Reloads the shared dictionary on the given connection.
+     */
+    static synchronized AllergenDictionary reload(Connection conn) throws Exception {
+        Map<String, int[]> idsByName = new HashMap<>();
+        Map<Integer, String> namesById = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT ingID, ingName FROM Allergen ORDER BY ingID")) {
+            while (rs.next()) {
+                int id = rs.getInt("ingID");
+                String name = rs.getString("ingName");
+                if (name == null) {
+                    continue; // nothing to match a NULL ingName against
+                }
+                namesById.put(id, name);
+                int[] ids = idsByName.get(key(name));
+                if (ids == null) {
+                    idsByName.put(key(name), new int[]{id});
+                    names.add(name);
+                } else {
+                    int[] more = Arrays.copyOf(ids, ids.length + 1);
+                    more[ids.length] = id;
+                    idsByName.put(key(name), more);
+                }
+            }
+        }
+        AllergenDictionary dictionary = new AllergenDictionary(idsByName, namesById, names);
+        current = dictionary;
+        return dictionary;
+    }
+
+    private static boolean isFresh(AllergenDictionary dictionary) {
+        return dictionary != null && System.currentTimeMillis() - dictionary.loadedAtMillis < TTL_MS;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the lowest ingID for the name (case-insensitive), or -1 if there is none
+     */
+    public int id(String name) {
+        int[] ids = name == null ? NO_IDS : idsByName.getOrDefault(key(name), NO_IDS);
+        return ids.length == 0 ? -1 : ids[0];
+    }
+
+    /**
+     * @return the ingName for the id, or null if there is none
+     */
+    public String name(int id) {
+        return namesById.get(id);
+    }
+
+    /**
+     * @return the distinct allergen names, in table order
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * @return every id of each of the given names; names that are not allergens are left out
+     */
+    public List<Integer> ids(List<String> names) {
+        List<Integer> ids = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name == null) {
+                continue;
+            }
+            for (int id : idsByName.getOrDefault(key(name), NO_IDS)) {
+                if (!ids.contains(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+}
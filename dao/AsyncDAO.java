@@ -0,0 +1,150 @@
+package FoodFinder.dao;
+
+import FoodFinder.catalog.Catalog;
+import FoodFinder.domain.AdminProfile;
+import FoodFinder.domain.Menu;
+import FoodFinder.domain.MenuItem;
+import FoodFinder.domain.Restaurant;
+import FoodFinder.domain.UserProfile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over the DAOs and the in-memory catalog.
+ *
+ * Every call runs on a dedicated data-access executor and returns a CompletableFuture, so
+ * Swing code never blocks the event dispatch thread on a database round trip. Callers are
+ * responsible for hopping back to the EDT before touching components.
+ */
+public class AsyncDAO {
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /**
+     * Uses a virtual-thread-per-task executor when the runtime supports it (Java 21+),
+     * otherwise a cached pool of daemon platform threads.
+     */
+    static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "FoodFinder-data-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+
+    public static CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+
+    // -------------------- Users and administrators --------------------
+
+    public static CompletableFuture<UserProfile> authenticateUser(String username, String password) {
+        return supply(() -> UserProfileDAO.authenticate(username, password));
+    }
+
+    public static CompletableFuture<UserProfile> signUp(String username, String password) {
+        return supply(() -> UserProfileDAO.signUp(username, password));
+    }
+
+    public static CompletableFuture<Boolean> updatePreferences(UserProfile user) {
+        return supply(() -> UserProfileDAO.updatePreferences(user));
+    }
+
+    public static CompletableFuture<AdminProfile> authenticateAdmin(String username, String password) {
+        return supply(() -> AdminProfileDAO.authenticate(username, password));
+    }
+
+    // -------------------- Search (answered from the catalog) --------------------
+
+    public static CompletableFuture<List<Restaurant>> getCatalogRestaurants() {
+        return supply(() -> Catalog.snapshot().getRestaurants());
+    }
+
+    public static CompletableFuture<List<String>> getDistinctCuisines() {
+        return supply(() -> Catalog.queries().getDistinctCuisines());
+    }
+
+    public static CompletableFuture<List<String>> getMealTypesForCuisines(List<String> cuisines) {
+        return supply(() -> Catalog.queries().getMealTypesForCuisines(cuisines));
+    }
+
+    public static CompletableFuture<List<String>> getAllergens() {
+        return supply(MenuDAO::getAllergens);
+    }
+
+    public static CompletableFuture<List<String>> getFilteredFoodItems(List<String> cuisines,
+                                                                      List<String> mealTypes,
+                                                                      List<String> restrictions) {
+        return supply(() -> Catalog.queries().getFilteredFoodItems(cuisines, mealTypes, restrictions));
+    }
+
+    public static CompletableFuture<Map<Restaurant, List<String>>> getFilteredRestaurantsWithMatchingItems(
+            List<String> cuisines, List<String> mealTypes, List<String> foodItems, List<String> restrictions) {
+        return supply(() -> Catalog.queries().getFilteredRestaurantsWithMatchingItems(
+                cuisines, mealTypes, foodItems, restrictions));
+    }
+
+    // -------------------- Restaurants, menus and items --------------------
+
+    public static CompletableFuture<List<Restaurant>> getAllRestaurants() {
+        return supply(RestaurantDAO::getAllRestaurants);
+    }
+
+    public static CompletableFuture<Integer> addRestaurant(Restaurant restaurant) {
+        return supply(() -> RestaurantDAO.addRestaurant(restaurant));
+    }
+
+    public static CompletableFuture<Void> deleteRestaurant(int restaurantId) {
+        return run(() -> RestaurantDAO.deleteRestaurant(restaurantId));
+    }
+
+    public static CompletableFuture<List<Menu>> getMenusForRestaurant(int restaurantId) {
+        return supply(() -> MenuDAO.getMenusForRestaurant(restaurantId));
+    }
+
+    public static CompletableFuture<List<MenuItem>> getMenuItems(int menuId) {
+        return supply(() -> MenuDAO.getMenuItems(menuId));
+    }
+
+    public static CompletableFuture<Void> addMenu(int restaurantId, String menuType) {
+        return run(() -> MenuDAO.addMenu(restaurantId, menuType));
+    }
+
+    public static CompletableFuture<Void> deleteMenu(int menuId) {
+        return run(() -> MenuDAO.deleteMenu(menuId));
+    }
+
+    public static CompletableFuture<RecipeWriteResult> addItem(int menuId, String itemName, String recipe) {
+        return supply(() -> MenuDAO.addItem(menuId, itemName, recipe));
+    }
+
+    public static CompletableFuture<Void> deleteItem(int menuId, String itemName) {
+        return run(() -> MenuDAO.deleteItem(menuId, itemName));
+    }
+
+    public static CompletableFuture<RecipeWriteResult> updateRecipe(int menuId, String itemName, String recipe) {
+        return supply(() -> MenuDAO.updateRecipe(menuId, itemName, recipe));
+    }
+
+    public static CompletableFuture<Void> deleteRecipe(int menuId, String itemName) {
+        return run(() -> MenuDAO.deleteRecipe(menuId, itemName));
+    }
+}
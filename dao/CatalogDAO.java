@@ -0,0 +1,50 @@
+package FoodFinder.dao;
+
+import FoodFinder.catalog.CatalogSnapshot;
+import java.sql.*;
+
+public class CatalogDAO {
+
+    /**
+     * Reads the Restaurant, Menu, Item, Allergen and Recipe tables in full over a single
+     * connection and builds an immutable in-memory snapshot of them.
+     *
+     * @return the loaded snapshot
+     */
+    public static CatalogSnapshot loadSnapshot() {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        try (Connection conn = DatabaseHelper.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT " + RestaurantDAO.restaurantColumns("") + " FROM Restaurant ORDER BY rid")) {
+                while (rs.next()) {
+                    builder.addRestaurant(RestaurantDAO.readRestaurant(rs));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT mID, rid, type FROM Menu")) {
+                while (rs.next()) {
+                    builder.addMenu(rs.getInt("mID"), rs.getInt("rid"), rs.getString("type"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT mID, iname FROM Item")) {
+                while (rs.next()) {
+                    builder.addItem(rs.getInt("mID"), rs.getString("iname"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT ingName FROM Allergen")) {
+                while (rs.next()) {
+                    builder.addAllergen(rs.getString("ingName"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT R.mID, R.iname, A.ingName FROM Recipe R JOIN Allergen A ON R.ingID = A.ingID")) {
+                while (rs.next()) {
+                    builder.addRecipeEntry(rs.getInt("mID"), rs.getString("iname"), rs.getString("ingName"));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Error loading catalog snapshot: " + e.getMessage(), e);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,554 @@
+package FoodFinder.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Connections handed out by {@link #borrow()} are proxies: calling close() on them
+ * returns the physical connection to the pool instead of closing it, so existing
+ * try-with-resources blocks in the DAOs keep working unchanged.
+ *
+ * Each pooled connection also keeps an LRU cache of its prepared statements keyed by SQL
+ * text. prepareStatement(sql) on a handle reuses a cached statement when one is free, and
+ * closing the returned statement puts it back in the cache, so a query shape is parsed and
+ * planned once per physical connection rather than once per call.
+ */
+public class ConnectionPool {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // Idle connections, most recently returned first so hot connections are reused.
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis,
+                          long validationIntervalMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "FoodFinder-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured borrow timeout if the pool is exhausted.
+     * Idle connections that have not been used recently are validated before being handed out.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (isUsable(pc)) {
+                    break;
+                }
+                validationFailures.incrementAndGet();
+                destroy(pc);
+            }
+            if (pc == null) {
+                pc = open();
+            }
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrower = Thread.currentThread();
+            pc.leakReported = false;
+            borrowed.add(pc);
+            borrows.incrementAndGet();
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastReturnedAt < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void giveBack(PooledConnection pc) {
+        borrowed.remove(pc);
+        pc.borrower = null;
+        boolean healthy = true;
+        try {
+            pc.releaseStatements();
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            pc.physical.clearWarnings();
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        pc.lastReturnedAt = System.currentTimeMillis();
+        if (healthy && !closed) {
+            idle.offerFirst(pc);
+        } else {
+            destroy(pc);
+        }
+        permits.release();
+    }
+
+    private void destroy(PooledConnection pc) {
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+            // Already broken; nothing more to do.
+        }
+        destroyed.incrementAndGet();
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Evict connections that sat idle too long, but never shrink below minSize.
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pc = it.next();
+            if (idle.size() + borrowed.size() <= minSize) {
+                break;
+            }
+            if (now - pc.lastReturnedAt > idleTimeoutMillis && idle.remove(pc)) {
+                destroy(pc);
+            }
+        }
+
+        // Top the pool back up to minSize once it has been used at least once.
+        while (!closed && created.get() > 0 && idle.size() + borrowed.size() < minSize) {
+            try {
+                PooledConnection pc = open();
+                pc.lastReturnedAt = now;
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                break;
+            }
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pc : borrowed) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakThresholdMillis) {
+                    pc.leakReported = true;
+                    leaksDetected.incrementAndGet();
+                    Thread borrower = pc.borrower;
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pc.borrowedAt) + " ms by " + borrower);
+                    // Where the borrower is now, usually still inside the code holding the
+                    // connection. Captured only here so borrowing stays free of stack walks.
+                    if (borrower != null) {
+                        for (StackTraceElement frame : borrower.getStackTrace()) {
+                            System.err.println("\tat " + frame);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping thread. Connections that are
+     * still borrowed are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(idle.size(), borrowed.size(), maxSize, permits.getQueueLength(),
+                created.get(), destroyed.get(), borrows.get(), borrowTimeouts.get(),
+                validationFailures.get(), leaksDetected.get(), totalWaitNanos.get(),
+                statementCacheHits.get(), statementCacheMisses.get());
+    }
+
+    // -------------------- Pooled connection --------------------
+
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long borrowedAt;
+        volatile long lastReturnedAt;
+        volatile Thread borrower;
+        volatile boolean leakReported;
+
+        // Cached prepared statements by SQL text, least recently used first.
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+
+        /**
+         * Returns a cached statement for the SQL if one is free, otherwise prepares a new one and
+         * caches it, evicting the least recently used free statement when the cache is full.
+         */
+        synchronized PreparedStatement prepareCached(String sql, Connection handle) throws SQLException {
+            CachedStatement cs = statements.get(sql);
+            if (cs != null && cs.inUse) {
+                // The same SQL is already open on this borrow; fall back to an uncached statement.
+                statementCacheMisses.incrementAndGet();
+                return physical.prepareStatement(sql);
+            }
+            if (cs != null) {
+                statementCacheHits.incrementAndGet();
+            } else {
+                statementCacheMisses.incrementAndGet();
+                cs = new CachedStatement(this, sql, physical.prepareStatement(sql));
+                statements.put(sql, cs);
+                evictStatements();
+            }
+            return cs.checkOut(handle);
+        }
+
+        private void evictStatements() {
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (statements.size() > statementCacheSize && it.hasNext()) {
+                CachedStatement eldest = it.next();
+                if (!eldest.inUse) {
+                    it.remove();
+                    eldest.closeQuietly();
+                }
+            }
+        }
+
+        synchronized void discard(CachedStatement cs) {
+            statements.remove(cs.sql);
+            cs.closeQuietly();
+        }
+
+        /**
+         * Reclaims statements the borrower forgot to close before returning the connection.
+         */
+        synchronized void releaseStatements() {
+            for (CachedStatement cs : statements.values().toArray(new CachedStatement[0])) {
+                if (cs.inUse) {
+                    cs.checkIn();
+                }
+            }
+        }
+    }
+
+    /**
+     * A physical prepared statement owned by a pooled connection's cache. It is checked out to
+     * at most one statement handle at a time.
+     */
+    private static final class CachedStatement {
+        final PooledConnection owner;
+        final String sql;
+        final PreparedStatement physical;
+        boolean inUse;
+        StatementHandle handle;
+
+        CachedStatement(PooledConnection owner, String sql, PreparedStatement physical) {
+            this.owner = owner;
+            this.sql = sql;
+            this.physical = physical;
+        }
+
+        PreparedStatement checkOut(Connection connectionHandle) {
+            inUse = true;
+            handle = new StatementHandle(this, connectionHandle);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    handle);
+        }
+
+        /**
+         * Resets the statement for its next user: closes any open result set, clears the bound
+         * parameters and any unexecuted batch, and restores the default row limit, fetch size and
+         * timeout. A statement that cannot be reset is dropped from the cache.
+         */
+        void checkIn() {
+            if (handle != null) {
+                handle.statement = null;
+                handle = null;
+            }
+            try {
+                ResultSet rs = physical.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.setMaxRows(0);
+                physical.setFetchSize(0);
+                physical.setQueryTimeout(0);
+                inUse = false;
+            } catch (SQLException e) {
+                owner.discard(this);
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // Closed along with its connection anyway.
+            }
+        }
+    }
+
+    /**
+     * Per-checkout view of a cached statement. Closing it returns the statement to the cache.
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        private volatile CachedStatement statement;
+        private final Connection connectionHandle;
+
+        StatementHandle(CachedStatement statement, Connection connectionHandle) {
+            this.statement = statement;
+            this.connectionHandle = connectionHandle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            CachedStatement current = statement;
+            switch (method.getName()) {
+                case "close":
+                    if (current != null) {
+                        synchronized (current.owner) {
+                            if (current.handle == this) {
+                                current.checkIn();
+                            }
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return current == null;
+                case "getConnection":
+                    return connectionHandle;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + (current == null ? "closed" : current.sql) + "]";
+                default:
+                    if (current == null) {
+                        throw new SQLException("Statement is closed");
+                    }
+            }
+            try {
+                return method.invoke(current.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Per-borrow view of a pooled connection. Closing the handle returns the connection;
+     * any further use of the same handle fails as it would on a closed connection.
+     */
+    private final class Handle implements InvocationHandler {
+        private PooledConnection pc;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            PooledConnection current;
+            synchronized (this) {
+                switch (name) {
+                    case "close":
+                        if (pc != null) {
+                            PooledConnection toReturn = pc;
+                            pc = null;
+                            giveBack(toReturn);
+                        }
+                        return null;
+                    case "isClosed":
+                        return pc == null;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + (pc == null ? "closed" : pc.physical) + "]";
+                    default:
+                        if (pc == null) {
+                            throw new SQLException("Connection is closed");
+                        }
+                        current = pc;
+                }
+            }
+            if (statementCacheSize > 0 && name.equals("prepareStatement") && args.length == 1) {
+                return current.prepareCached((String) args[0], (Connection) proxy);
+            }
+            try {
+                return method.invoke(current.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // -------------------- Statistics --------------------
+
+    public static class Stats {
+        private final int idle;
+        private final int active;
+        private final int maxSize;
+        private final int waiting;
+        private final long created;
+        private final long destroyed;
+        private final long borrows;
+        private final long borrowTimeouts;
+        private final long validationFailures;
+        private final long leaksDetected;
+        private final long totalWaitNanos;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        Stats(int idle, int active, int maxSize, int waiting, long created, long destroyed,
+              long borrows, long borrowTimeouts, long validationFailures, long leaksDetected,
+              long totalWaitNanos, long statementCacheHits, long statementCacheMisses) {
+            this.idle = idle;
+            this.active = active;
+            this.maxSize = maxSize;
+            this.waiting = waiting;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.borrows = borrows;
+            this.borrowTimeouts = borrowTimeouts;
+            this.validationFailures = validationFailures;
+            this.leaksDetected = leaksDetected;
+            this.totalWaitNanos = totalWaitNanos;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getIdle() { return idle; }
+        public int getActive() { return active; }
+        public int getMaxSize() { return maxSize; }
+        public int getWaiting() { return waiting; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getBorrows() { return borrows; }
+        public long getBorrowTimeouts() { return borrowTimeouts; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getLeaksDetected() { return leaksDetected; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        /**
+         * @return the fraction of prepareStatement calls answered from the statement cache
+         */
+        public double getStatementCacheHitRate() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+        }
+
+        public double getAverageWaitMillis() {
+            return borrows == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrows;
+        }
+
+        @Override
+        public String toString() {
+            return "active=" + active + ", idle=" + idle + ", max=" + maxSize + ", waiting=" + waiting
+                    + ", created=" + created + ", destroyed=" + destroyed + ", borrows=" + borrows
+                    + ", timeouts=" + borrowTimeouts + ", validationFailures=" + validationFailures
+                    + ", leaks=" + leaksDetected
+                    + ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis())
+                    + ", stmtCacheHitRate=" + String.format("%.3f", getStatementCacheHitRate());
+        }
+    }
+}
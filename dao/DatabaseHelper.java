@@ -1,11 +1,86 @@
 package FoodFinder.dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DatabaseHelper {
+    // Server-side prepared statements, so the statements cached per pooled connection are parsed
+    // and planned by MySQL once; Connector/J otherwise sends the full SQL text on every execute.
+    // The driver's own cache covers statements the pool does not cache (e.g. with generated keys).
+    private static final String URL = "jdbc:mysql://ambari-node5.csc.calpoly.edu/foodfinder"
+            + "?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
+    private static final String USER = "foodfinder";
+    private static final String PASSWORD = "password";
+
+    // Pool sizing can be tuned with -Dfoodfinder.pool.* system properties.
+    private static final int POOL_MIN_SIZE = Integer.getInteger("foodfinder.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("foodfinder.pool.maxSize", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("foodfinder.pool.borrowTimeoutMs", 10_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("foodfinder.pool.idleTimeoutMs", 300_000L);
+    private static final long VALIDATION_INTERVAL_MS = Long.getLong("foodfinder.pool.validationIntervalMs", 500L);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("foodfinder.pool.leakThresholdMs", 60_000L);
+    // Prepared statements cached per pooled connection; 0 disables the cache.
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("foodfinder.pool.statementCacheSize", 64);
+
+    // Run at exit before the pool closes, e.g. to write buffered updates.
+    private static final List<Runnable> SHUTDOWN_TASKS = new CopyOnWriteArrayList<>();
+    private static volatile boolean poolCreated;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseHelper::shutdown, "FoodFinder-pool-shutdown"));
+    }
+
+    // The pool is created lazily on first use so the driver is only loaded once.
+    private static class PoolHolder {
+        static final ConnectionPool POOL = createPool();
+
+        private static ConnectionPool createPool() {
+            try {
+                Class.forName("com.mysql.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException("MySQL JDBC driver not found on the classpath", e);
+            }
+            ConnectionPool pool = new ConnectionPool(URL, USER, PASSWORD,
+                    POOL_MIN_SIZE, POOL_MAX_SIZE, BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS,
+                    VALIDATION_INTERVAL_MS, LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+            poolCreated = true;
+            return pool;
+        }
+    }
+
+    /**
+     * Registers a task to run at JVM exit while the pool can still hand out connections.
+     */
+    public static void beforeShutdown(Runnable task) {
+        SHUTDOWN_TASKS.add(task);
+    }
+
+    private static void shutdown() {
+        for (Runnable task : SHUTDOWN_TASKS) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error during shutdown: " + e.getMessage());
+            }
+        }
+        if (poolCreated) {
+            PoolHolder.POOL.shutdown();
+        }
+    }
+
+    /**
+     * Borrows a connection from the shared pool. Closing the returned connection
+     * hands it back to the pool rather than closing the underlying socket.
+     */
     public static Connection getConnection() throws Exception {
-        Class.forName("com.mysql.jdbc.Driver");
-        return DriverManager.getConnection("jdbc:mysql://ambari-node5.csc.calpoly.edu/foodfinder", "foodfinder", "password");
+        return PoolHolder.POOL.borrow();
+    }
+
+    /**
+     * @return a snapshot of the connection pool's current usage counters.
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return PoolHolder.POOL.getStats();
     }
 }
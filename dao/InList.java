@@ -0,0 +1,56 @@
+package FoodFinder.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Placeholder lists for dynamically sized IN (...) conditions.
+ *
+ * The number of placeholders is rounded up to the next power of two, so lists of similar
+ * length produce the same SQL text and share one cached prepared statement per connection.
+ * The extra placeholders are bound to the last value again, which does not change the result.
+ */
+class InList {
+
+    /**
+     * @return the placeholder count used for a list of the given (non-zero) size
+     */
+    static int bucket(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * @return "?, ?, ..." with bucket(size) placeholders
+     */
+    static String placeholders(int size) {
+        return String.join(", ", Collections.nCopies(bucket(size), "?"));
+    }
+
+    /**
+     * Binds the values followed by padding for the placeholders written by placeholders().
+     *
+     * @return the next parameter index
+     */
+    static int bind(PreparedStatement pstmt, int index, List<String> values) throws SQLException {
+        int padded = bucket(values.size());
+        for (int i = 0; i < padded; i++) {
+            pstmt.setString(index++, values.get(Math.min(i, values.size() - 1)));
+        }
+        return index;
+    }
+
+    /**
+     * Integer variant of bind(), e.g. for lists of ids.
+     *
+     * @return the next parameter index
+     */
+    static int bindInts(PreparedStatement pstmt, int index, List<Integer> values) throws SQLException {
+        int padded = bucket(values.size());
+        for (int i = 0; i < padded; i++) {
+            pstmt.setInt(index++, values.get(Math.min(i, values.size() - 1)));
+        }
+        return index;
+    }
+}
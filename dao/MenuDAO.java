@@ -1,118 +1,195 @@
 package FoodFinder.dao;
 
+import FoodFinder.catalog.Catalog;
 import FoodFinder.domain.Menu;
 import FoodFinder.domain.MenuItem;
 import java.sql.*;
 import java.util.*;
 
 public class MenuDAO {
+    /**
+     * Loads every menu of a restaurant together with its items and their ingredients
+     * in a single round trip, then assembles the Menu/MenuItem graph in memory.
+     * Ingredient names come from the allergen dictionary rather than a join on Allergen.
+     */
     public static List<Menu> getMenusForRestaurant(int restaurantId) {
-        List<Menu> menus = new ArrayList<>();
-        String sql = "SELECT mID, type FROM Menu WHERE rid = ?";
+        String sql = "SELECT M.mID, M.type, I.iname, R.ingID " +
+                "FROM Menu M " +
+                "LEFT JOIN Item I ON I.mID = M.mID " +
+                "LEFT JOIN Recipe R ON R.mID = I.mID AND R.iname = I.iname " +
+                "WHERE M.rid = ? ORDER BY M.mID, I.iname, R.ingID";
+        Map<Integer, String> menuTypes = new LinkedHashMap<>();
+        Map<Integer, Map<String, List<Integer>>> itemsByMenu = new HashMap<>();
+        Set<Integer> ingIds = new HashSet<>();
+        AllergenDictionary dictionary;
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, restaurantId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     int menuId = rs.getInt("mID");
-                    String type = rs.getString("type");
-                    List<MenuItem> items = getMenuItems(menuId);
-                    menus.add(new Menu(menuId, type, items));
+                    menuTypes.putIfAbsent(menuId, rs.getString("type"));
+                    Map<String, List<Integer>> items = itemsByMenu.computeIfAbsent(menuId, k -> new LinkedHashMap<>());
+                    collectItemRow(items, ingIds, rs.getString("iname"), (Integer) rs.getObject("ingID"));
                 }
             }
+            dictionary = dictionaryCovering(conn, ingIds);
         } catch (Exception e) {
             throw new RuntimeException("Error getting menus for restaurant: " + e.getMessage(), e);
         }
+        List<Menu> menus = new ArrayList<>(menuTypes.size());
+        for (Map.Entry<Integer, String> entry : menuTypes.entrySet()) {
+            menus.add(new Menu(entry.getKey(), entry.getValue(), toMenuItems(itemsByMenu.get(entry.getKey()), dictionary)));
+        }
         return menus;
     }
 
+    /**
+     * Loads the items of one menu together with their ingredients in a single query.
+     */
     public static List<MenuItem> getMenuItems(int menuId) {
-        List<MenuItem> items = new ArrayList<>();
-        String sql = "SELECT iname FROM Item WHERE mID = ?";
+        String sql = "SELECT I.iname, R.ingID " +
+                "FROM Item I " +
+                "LEFT JOIN Recipe R ON R.mID = I.mID AND R.iname = I.iname " +
+                "WHERE I.mID = ? ORDER BY I.iname, R.ingID";
+        Map<String, List<Integer>> items = new LinkedHashMap<>();
+        Set<Integer> ingIds = new HashSet<>();
+        AllergenDictionary dictionary;
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, menuId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String itemName = rs.getString("iname");
-                    List<String> allergens = getItemAllergens(menuId, itemName);
-                    String recipe = allergens.isEmpty() ? "No recipe details available."
-                            : "Ingredients: " + String.join(", ", allergens);
-                    items.add(new MenuItem(itemName, recipe, allergens));
+                    collectItemRow(items, ingIds, rs.getString("iname"), (Integer) rs.getObject("ingID"));
                 }
             }
+            dictionary = dictionaryCovering(conn, ingIds);
         } catch (Exception e) {
             throw new RuntimeException("Error getting menu items: " + e.getMessage(), e);
         }
-        return items;
+        return toMenuItems(items, dictionary);
+    }
+
+    // Accumulates one (item, ingredient) row; ingID is null for items without a recipe.
+    private static void collectItemRow(Map<String, List<Integer>> items, Set<Integer> ingIds, String itemName, Integer ingID) {
+        if (itemName == null) {
+            return; // Menu without any items.
+        }
+        List<Integer> ids = items.computeIfAbsent(itemName, k -> new ArrayList<>());
+        if (ingID != null) {
+            ids.add(ingID);
+            ingIds.add(ingID);
+        }
+    }
+
+    private static List<MenuItem> toMenuItems(Map<String, List<Integer>> items, AllergenDictionary dictionary) {
+        List<MenuItem> result = new ArrayList<>();
+        if (items == null) {
+            return result;
+        }
+        for (Map.Entry<String, List<Integer>> entry : items.entrySet()) {
+            List<String> allergens = allergenNames(entry.getValue(), dictionary);
+            result.add(new MenuItem(entry.getKey(), describeRecipe(allergens), allergens));
+        }
+        return result;
+    }
+
+    /**
+     * @return the recipe text shown for an item with the given ingredients
+     */
+    public static String describeRecipe(List<String> allergens) {
+        return allergens.isEmpty() ? "No recipe details available."
+                : "Ingredients: " + String.join(", ", allergens);
+    }
+
+    private static List<String> allergenNames(List<Integer> ingIds, AllergenDictionary dictionary) {
+        List<String> names = new ArrayList<>(ingIds.size());
+        for (int id : ingIds) {
+            String name = dictionary.name(id);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the allergen dictionary, reloading it (rate limited) if it does not know every
+     * given ingID, i.e. an allergen was added since it was loaded.
+     */
+    private static AllergenDictionary dictionaryCovering(Connection conn, Set<Integer> ingIds) throws Exception {
+        AllergenDictionary dictionary = AllergenDictionary.get(conn);
+        for (int id : ingIds) {
+            if (dictionary.name(id) == null) {
+                return AllergenDictionary.reloadAfterMiss(conn);
+            }
+        }
+        return dictionary;
     }
 
     public static List<String> getItemAllergens(int menuId, String itemName) {
-        List<String> allergens = new ArrayList<>();
-        String sql = "SELECT A.ingName FROM Recipe R JOIN Allergen A ON R.ingID = A.ingID WHERE R.mID = ? AND R.iname = ?";
+        List<Integer> ingIds = new ArrayList<>();
+        String sql = "SELECT ingID FROM Recipe WHERE mID = ? AND iname = ? ORDER BY ingID";
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, menuId);
             pstmt.setString(2, itemName);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    allergens.add(rs.getString("ingName"));
+                    ingIds.add(rs.getInt("ingID"));
                 }
             }
+            return allergenNames(ingIds, dictionaryCovering(conn, new HashSet<>(ingIds)));
         } catch (Exception e) {
             throw new RuntimeException("Error getting item allergens: " + e.getMessage(), e);
         }
-        return allergens;
     }
 
     public static List<String> getFilteredFoodItems(List<String> selectedCuisines,
                                                     List<String> selectedMealTypes,
                                                     List<String> selectedRestrictions) {
         List<String> foodItems = new ArrayList<>();
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT DISTINCT I.iname ")
-                .append("FROM Restaurant R ")
-                .append("JOIN Menu M ON R.rid = M.rid ")
-                .append("JOIN Item I ON M.mID = I.mID ")
-                .append("WHERE 1=1 ");
-        if (!selectedCuisines.isEmpty()) {
-            sql.append("AND R.cuisine IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedCuisines.size(), "?")))
-                    .append(") ");
-        }
-        if (!selectedMealTypes.isEmpty()) {
-            sql.append("AND M.type IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedMealTypes.size(), "?")))
-                    .append(") ");
-        }
-        if (!selectedRestrictions.isEmpty()) {
-            sql.append("AND NOT EXISTS (")
-                    .append("SELECT 1 FROM Recipe RC JOIN Allergen A ON RC.ingID = A.ingID ")
-                    .append("WHERE RC.mID = I.mID AND RC.iname = I.iname AND A.ingName IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedRestrictions.size(), "?")))
-                    .append(")) ");
-        }
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            int index = 1;
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            // Restrictions are matched by ingID; names that are not allergens cannot exclude anything.
+            List<Integer> restrictionIds = AllergenDictionary.get(conn).ids(selectedRestrictions);
+            StringBuilder sql = new StringBuilder();
+            sql.append("SELECT DISTINCT I.iname ")
+                    .append("FROM Restaurant R ")
+                    .append("JOIN Menu M ON R.rid = M.rid ")
+                    .append("JOIN Item I ON M.mID = I.mID ")
+                    .append("WHERE 1=1 ");
             if (!selectedCuisines.isEmpty()) {
-                for (String c : selectedCuisines) {
-                    pstmt.setString(index++, c);
-                }
+                sql.append("AND R.cuisine IN (")
+                        .append(InList.placeholders(selectedCuisines.size()))
+                        .append(") ");
             }
             if (!selectedMealTypes.isEmpty()) {
-                for (String m : selectedMealTypes) {
-                    pstmt.setString(index++, m);
-                }
+                sql.append("AND M.type IN (")
+                        .append(InList.placeholders(selectedMealTypes.size()))
+                        .append(") ");
             }
-            if (!selectedRestrictions.isEmpty()) {
-                for (String r : selectedRestrictions) {
-                    pstmt.setString(index++, r);
-                }
+            if (!restrictionIds.isEmpty()) {
+                sql.append("AND NOT EXISTS (")
+                        .append("SELECT 1 FROM Recipe RC ")
+                        .append("WHERE RC.mID = I.mID AND RC.iname = I.iname AND RC.ingID IN (")
+                        .append(InList.placeholders(restrictionIds.size()))
+                        .append(")) ");
             }
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    foodItems.add(rs.getString("iname"));
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                if (!selectedCuisines.isEmpty()) {
+                    index = InList.bind(pstmt, index, selectedCuisines);
+                }
+                if (!selectedMealTypes.isEmpty()) {
+                    index = InList.bind(pstmt, index, selectedMealTypes);
+                }
+                if (!restrictionIds.isEmpty()) {
+                    index = InList.bindInts(pstmt, index, restrictionIds);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        foodItems.add(rs.getString("iname"));
+                    }
                 }
             }
         } catch (Exception e) {
@@ -134,6 +211,7 @@ public class MenuDAO {
             pstmt.setString(1, menuType);
             pstmt.setInt(2, restaurantId);
             pstmt.executeUpdate();
+            Catalog.invalidate();
         } catch (Exception e) {
             throw new RuntimeException("Error adding menu: " + e.getMessage(), e);
         }
@@ -151,35 +229,40 @@ public class MenuDAO {
                 pstmtMenu.setInt(1, menuId);
                 pstmtMenu.executeUpdate();
             }
+            Catalog.invalidate();
         } catch (Exception e) {
             throw new RuntimeException("Error deleting menu (foreign key constraints may prevent deletion): " + e.getMessage(), e);
         }
     }
 
-    public static void addItem(int menuId, String itemName, String recipe) {
+    /**
+     * Inserts an item and its recipe rows in one transaction. Ingredients are resolved with a
+     * single query; ones missing from the Allergen table are skipped and reported in the result.
+     *
+     * @param recipe comma-separated ingredient names, may be null or empty
+     */
+    public static RecipeWriteResult addItem(int menuId, String itemName, String recipe) {
         String sql = "INSERT INTO Item (mID, iname) VALUES (?, ?)";
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, menuId);
-            pstmt.setString(2, itemName);
-            pstmt.executeUpdate();
-        } catch (Exception e) {
-            throw new RuntimeException("Error adding item: " + e.getMessage(), e);
-        }
-        if (recipe != null && !recipe.trim().isEmpty()) {
-            String[] ingredients = recipe.split(",");
-            for (String ing : ingredients) {
-                String ingredient = ing.trim();
-                if (!ingredient.isEmpty()) {
-                    int ingID = getAllergenId(ingredient);
-                    if (ingID != -1) {
-                        addRecipeEntry(menuId, itemName, ingID);
-                    } else {
-                        System.err.println("Ingredient not found in Allergen table: " + ingredient);
-                    }
+        RecipeWriteResult result;
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, menuId);
+                    pstmt.setString(2, itemName);
+                    pstmt.executeUpdate();
                 }
+                result = writeRecipeRows(conn, menuId, itemName, recipe);
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (Exception e) {
+            throw new RuntimeException("Error adding item: " + e.getMessage(), e);
         }
+        Catalog.invalidate();
+        return result;
     }
 
     public static void deleteItem(int menuId, String itemName) {
@@ -196,27 +279,40 @@ public class MenuDAO {
                 pstmtItem.setString(2, itemName);
                 pstmtItem.executeUpdate();
             }
+            Catalog.invalidate();
         } catch (Exception e) {
             throw new RuntimeException("Error deleting item (foreign key constraints may prevent deletion): " + e.getMessage(), e);
         }
     }
 
-    public static void updateRecipe(int menuId, String itemName, String updatedRecipe) {
-        deleteRecipe(menuId, itemName);
-        if (updatedRecipe != null && !updatedRecipe.trim().isEmpty()) {
-            String[] ingredients = updatedRecipe.split(",");
-            for (String ing : ingredients) {
-                String ingredient = ing.trim();
-                if (!ingredient.isEmpty()) {
-                    int ingID = getAllergenId(ingredient);
-                    if (ingID != -1) {
-                        addRecipeEntry(menuId, itemName, ingID);
-                    } else {
-                        System.err.println("Ingredient not found in Allergen table: " + ingredient);
-                    }
+    /**
+     * Replaces an item's recipe rows in one transaction, so a failure leaves the old recipe
+     * intact. Unknown ingredients are skipped and reported in the result.
+     *
+     * @param updatedRecipe comma-separated ingredient names, may be null or empty
+     */
+    public static RecipeWriteResult updateRecipe(int menuId, String itemName, String updatedRecipe) {
+        String sql = "DELETE FROM Recipe WHERE mID = ? AND iname = ?";
+        RecipeWriteResult result;
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, menuId);
+                    pstmt.setString(2, itemName);
+                    pstmt.executeUpdate();
                 }
+                result = writeRecipeRows(conn, menuId, itemName, updatedRecipe);
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (Exception e) {
+            throw new RuntimeException("Error updating recipe: " + e.getMessage(), e);
         }
+        Catalog.invalidate();
+        return result;
     }
 
     public static void deleteRecipe(int menuId, String itemName) {
@@ -226,40 +322,75 @@ public class MenuDAO {
             pstmt.setInt(1, menuId);
             pstmt.setString(2, itemName);
             pstmt.executeUpdate();
+            Catalog.invalidate();
         } catch (Exception e) {
             throw new RuntimeException("Error deleting recipe (foreign key constraints may prevent deletion): " + e.getMessage(), e);
         }
     }
 
     // -------------------- Helper Methods --------------------
-    private static int getAllergenId(String ingredient) {
-        int ingID = -1;
-        String sql = "SELECT ingID FROM Allergen WHERE ingName = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, ingredient);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    ingID = rs.getInt("ingID");
-                }
+
+    /**
+     * Splits a comma-separated recipe into trimmed ingredient names, dropping blanks and
+     * case-insensitive duplicates.
+     */
+    private static List<String> parseIngredients(String recipe) {
+        List<String> ingredients = new ArrayList<>();
+        if (recipe == null) {
+            return ingredients;
+        }
+        Set<String> seen = new HashSet<>();
+        for (String ing : recipe.split(",")) {
+            String ingredient = ing.trim();
+            if (!ingredient.isEmpty() && seen.add(ingredient.toLowerCase(Locale.ROOT))) {
+                ingredients.add(ingredient);
+            }
+        }
+        return ingredients;
+    }
+
+    /**
+     * Returns the allergen dictionary for resolving the given names, reloading it (rate
+     * limited) if it does not know one of them, in case the allergen was added since it was loaded.
+     */
+    private static AllergenDictionary dictionaryResolving(Connection conn, List<String> ingredients) throws Exception {
+        AllergenDictionary dictionary = AllergenDictionary.get(conn);
+        for (String ingredient : ingredients) {
+            if (dictionary.id(ingredient) == -1) {
+                return AllergenDictionary.reloadAfterMiss(conn);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error getting allergen ID: " + e.getMessage(), e);
         }
-        return ingID;
+        return dictionary;
     }
 
-    private static void addRecipeEntry(int menuId, String itemName, int ingID) {
+    /**
+     * Inserts the Recipe rows for a recipe string as one JDBC batch on the caller's connection
+     * (and so inside the caller's transaction).
+     */
+    private static RecipeWriteResult writeRecipeRows(Connection conn, int menuId, String itemName, String recipe) throws Exception {
+        List<String> ingredients = parseIngredients(recipe);
+        AllergenDictionary dictionary = dictionaryResolving(conn, ingredients);
+        List<String> linked = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
         String sql = "INSERT INTO Recipe (mID, iname, ingID) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, menuId);
-            pstmt.setString(2, itemName);
-            pstmt.setInt(3, ingID);
-            pstmt.executeUpdate();
-        } catch (Exception e) {
-            throw new RuntimeException("Error adding recipe entry: " + e.getMessage(), e);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (String ingredient : ingredients) {
+                int ingID = dictionary.id(ingredient);
+                if (ingID == -1) {
+                    unknown.add(ingredient);
+                    continue;
+                }
+                pstmt.setInt(1, menuId);
+                pstmt.setString(2, itemName);
+                pstmt.setInt(3, ingID);
+                pstmt.addBatch();
+                linked.add(ingredient);
+            }
+            if (!linked.isEmpty()) {
+                pstmt.executeBatch();
+            }
         }
+        return new RecipeWriteResult(linked, unknown);
     }
 
     // -------------------- Newly Added Methods --------------------
@@ -280,14 +411,11 @@ public class MenuDAO {
         } else {
             StringBuilder sql = new StringBuilder();
             sql.append("SELECT DISTINCT M.type FROM Menu M JOIN Restaurant R ON M.rid = R.rid WHERE R.cuisine IN (");
-            sql.append(String.join(", ", Collections.nCopies(cuisines.size(), "?")));
+            sql.append(InList.placeholders(cuisines.size()));
             sql.append(")");
             try (Connection conn = DatabaseHelper.getConnection();
                  PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-                int index = 1;
-                for (String c : cuisines) {
-                    pstmt.setString(index++, c);
-                }
+                InList.bind(pstmt, 1, cuisines);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
                         typeList.add(rs.getString("type"));
@@ -300,18 +428,10 @@ public class MenuDAO {
         return typeList;
     }
 
+    /**
+     * @return the distinct allergen names, answered from the allergen dictionary
+     */
     public static List<String> getAllergens() {
-        List<String> allergens = new ArrayList<>();
-        String sql = "SELECT DISTINCT ingName FROM Allergen";
-        try (Connection conn = DatabaseHelper.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                allergens.add(rs.getString("ingName"));
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error getting allergens: " + e.getMessage(), e);
-        }
-        return allergens;
+        return new ArrayList<>(AllergenDictionary.get().names());
     }
 }
@@ -0,0 +1,200 @@
+package FoodFinder.dao;
+
+import FoodFinder.domain.UserProfile;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for users' saved preferences.
+ *
+ * update() only records the latest preferences of each user; a background thread writes them
+ * -Dfoodfinder.preferences.flushMs (default 2 seconds) later, so a burst of saves becomes one
+ * row update and all users' pending rows go out as one JDBC batch. Preferences equal to what
+ * is already stored are not written. Pending rows are also written by flush() (e.g. on logout)
+ * and before the connection pool closes at exit.
+ */
+public class PreferenceStore {
+    private static final PreferenceStore SHARED =
+            new PreferenceStore(Long.getLong("foodfinder.preferences.flushMs", 2000L));
+
+    static {
+        DatabaseHelper.beforeShutdown(SHARED::flushPending);
+    }
+
+    private final long flushIntervalMillis;
+    // By uid: the latest preferences not yet being written, those being written by the current
+    // flush, and those last known to be in the database. Guarded by lock; the latest preferences
+    // a user asked for are the first of pending, inFlight and stored that has the uid.
+    private final Object lock = new Object();
+    private final Map<Integer, Row> pending = new HashMap<>();
+    private final Map<Integer, Row> inFlight = new HashMap<>();
+    private final Map<Integer, Row> stored = new HashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "FoodFinder-preferences");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * One user's preference columns as last saved or to be saved.
+     */
+    private static final class Row {
+        final int uid;
+        final String cuisines;
+        final String mealTypes;
+        final String restrictions;
+        final String foodItems;
+
+        Row(UserProfile user) {
+            this.uid = user.getUid();
+            this.cuisines = nullToEmpty(user.getSelectedCuisines());
+            this.mealTypes = nullToEmpty(user.getSelectedMealTypes());
+            this.restrictions = nullToEmpty(user.getSelectedRestrictions());
+            this.foodItems = nullToEmpty(user.getSelectedFoodItems());
+        }
+
+        private static String nullToEmpty(String s) {
+            return s == null ? "" : s;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Row)) {
+                return false;
+            }
+            Row other = (Row) o;
+            return uid == other.uid && cuisines.equals(other.cuisines) && mealTypes.equals(other.mealTypes)
+                    && restrictions.equals(other.restrictions) && foodItems.equals(other.foodItems);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uid, cuisines, mealTypes, restrictions, foodItems);
+        }
+    }
+
+    private PreferenceStore(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public static PreferenceStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * Records the user's preferences as they are in the database, e.g. just after login, so
+     * that saving them unchanged writes nothing.
+     */
+    public void markStored(UserProfile user) {
+        synchronized (lock) {
+            stored.put(user.getUid(), new Row(user));
+        }
+    }
+
+    /**
+     * Queues the user's current preferences to be written; returns immediately.
+     */
+    public void update(UserProfile user) {
+        Row row = new Row(user);
+        synchronized (lock) {
+            if (row.equals(written(row.uid))) {
+                pending.remove(row.uid); // changed back before the flush
+                return;
+            }
+            pending.put(row.uid, row);
+        }
+        scheduleFlush();
+    }
+
+    // What the database will hold once the running flush (if any) succeeds.
+    private Row written(int uid) {
+        Row row = inFlight.get(uid);
+        return row != null ? row : stored.get(uid);
+    }
+
+    /**
+     * Writes all pending preferences now, in the background.
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::flushPending, scheduler);
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                flushScheduled.set(false);
+                flushPending();
+            }, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the pending rows as one batch, one flush at a time. If that fails, each row is
+     * queued again unless the user has asked for newer preferences meanwhile, and the flush is
+     * retried after the flush interval.
+     */
+    synchronized void flushPending() {
+        List<Row> rows = new ArrayList<>();
+        synchronized (lock) {
+            for (Row row : pending.values()) {
+                if (!row.equals(stored.get(row.uid))) {
+                    rows.add(row);
+                    inFlight.put(row.uid, row);
+                }
+            }
+            pending.clear();
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        boolean written;
+        try {
+            write(rows);
+            written = true;
+        } catch (Exception | LinkageError e) { // LinkageError: the JDBC driver failed to load
+            System.err.println("Error saving preferences: " + e);
+            written = false;
+        }
+        synchronized (lock) {
+            for (Row row : rows) {
+                inFlight.remove(row.uid);
+                if (written) {
+                    stored.put(row.uid, row);
+                } else if (!pending.containsKey(row.uid)) {
+                    // Still the latest: an update equal to it would have been dropped as unchanged.
+                    pending.put(row.uid, row);
+                }
+            }
+        }
+        if (!written) {
+            scheduleFlush();
+        }
+    }
+
+    private static void write(List<Row> rows) throws Exception {
+        String sql = "UPDATE UserProfile SET selectedCuisines = ?, selectedMealTypes = ?, selectedRestrictions = ?, selectedFoodItems = ? WHERE uid = ?";
+        try (Connection con = DatabaseHelper.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            for (Row row : rows) {
+                ps.setString(1, row.cuisines);
+                ps.setString(2, row.mealTypes);
+                ps.setString(3, row.restrictions);
+                ps.setString(4, row.foodItems);
+                ps.setInt(5, row.uid);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
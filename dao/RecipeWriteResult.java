@@ -0,0 +1,25 @@
+package FoodFinder.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of writing an item's recipe: which ingredients were linked and which were skipped
+ * because they are not in the Allergen table.
+ */
+public class RecipeWriteResult {
+    private final List<String> linkedIngredients;
+    private final List<String> unknownIngredients;
+
+    RecipeWriteResult(List<String> linkedIngredients, List<String> unknownIngredients) {
+        this.linkedIngredients = Collections.unmodifiableList(linkedIngredients);
+        this.unknownIngredients = Collections.unmodifiableList(unknownIngredients);
+    }
+
+    public List<String> getLinkedIngredients() { return linkedIngredients; }
+    public List<String> getUnknownIngredients() { return unknownIngredients; }
+
+    public boolean hasUnknownIngredients() {
+        return !unknownIngredients.isEmpty();
+    }
+}
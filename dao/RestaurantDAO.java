@@ -1,5 +1,6 @@
 package FoodFinder.dao;
 
+import FoodFinder.catalog.Catalog;
 import FoodFinder.domain.Restaurant;
 import java.sql.*;
 import java.util.*;
@@ -14,22 +15,42 @@ public class RestaurantDAO {
             if (rowsAffected == 0) {
                 throw new RuntimeException("No restaurant found with id: " + restaurantId);
             }
+            Catalog.invalidate();
         } catch (Exception ex) {
             throw new RuntimeException("Error deleting restaurant", ex);
         }
     }
-    public static void addRestaurant(Restaurant restaurant) {
-        // Combine latitude and longitude into a coordinate string.
+    /**
+     * Inserts the restaurant.
+     *
+     * @return the generated rid
+     */
+    public static int addRestaurant(Restaurant restaurant) {
+        // The legacy coordinate string is always written so unmigrated readers keep working.
         String coordString = restaurant.lat + "," + restaurant.lon;
-        String sql = "INSERT INTO Restaurant (rname, cuisine, price, coordinates, rating) VALUES (?, ?, ?, ?, ?)";
+        boolean numeric = usesNumericCoordinates();
+        String sql = numeric
+                ? "INSERT INTO Restaurant (rname, cuisine, price, coordinates, rating, latitude, longitude) VALUES (?, ?, ?, ?, ?, ?, ?)"
+                : "INSERT INTO Restaurant (rname, cuisine, price, coordinates, rating) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, restaurant.name);
             pstmt.setString(2, restaurant.cuisine);
             pstmt.setString(3, restaurant.price);
             pstmt.setString(4, coordString);
             pstmt.setString(5, restaurant.rating);
+            if (numeric) {
+                pstmt.setDouble(6, restaurant.lat);
+                pstmt.setDouble(7, restaurant.lon);
+            }
             pstmt.executeUpdate();
+            Catalog.invalidate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No generated key returned");
+                }
+                return keys.getInt(1);
+            }
         } catch (Exception e) {
             throw new RuntimeException("Error adding restaurant: " + e.getMessage(), e);
         }
@@ -37,24 +58,12 @@ public class RestaurantDAO {
 
     public static List<Restaurant> getAllRestaurants() {
         List<Restaurant> list = new ArrayList<>();
-        String sql = "SELECT rid, rname, cuisine, price, coordinates, rating FROM Restaurant";
+        String sql = "SELECT " + restaurantColumns("") + " FROM Restaurant";
         try (Connection conn = DatabaseHelper.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                int id = rs.getInt("rid");
-                String name = rs.getString("rname");
-                String cuisine = rs.getString("cuisine");
-                String price = rs.getString("price");
-                String rating = rs.getString("rating");
-                String coords = rs.getString("coordinates");
-                double lat = 0.0, lon = 0.0;
-                if (coords != null && coords.contains(",")) {
-                    String[] parts = coords.split(",");
-                    lat = Double.parseDouble(parts[0].trim());
-                    lon = Double.parseDouble(parts[1].trim());
-                }
-                list.add(new Restaurant(id, name, cuisine, price, rating, lat, lon));
+                list.add(readRestaurant(rs));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -77,137 +86,99 @@ public class RestaurantDAO {
         return cuisines;
     }
 
-    public static List<Restaurant> getFilteredRestaurants(List<String> selectedCuisines,
-                                                          List<String> selectedMealTypes,
-                                                          List<String> selectedFoodItems,
-                                                          List<String> selectedRestrictions) {
-        List<Restaurant> list = new ArrayList<>();
-        if (selectedFoodItems.isEmpty()) return list;
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT DISTINCT R.rid, R.rname, R.cuisine, R.price, R.coordinates, R.rating ")
-                .append("FROM Restaurant R ")
-                .append("JOIN Menu M ON R.rid = M.rid ")
-                .append("JOIN Item I ON M.mID = I.mID ")
-                .append("WHERE 1=1 ");
-        if (!selectedCuisines.isEmpty()) {
-            sql.append("AND R.cuisine IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedCuisines.size(), "?")))
-                    .append(") ");
-        }
-        if (!selectedMealTypes.isEmpty()) {
-            sql.append("AND M.type IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedMealTypes.size(), "?")))
-                    .append(") ");
-        }
-        sql.append("AND (");
-        for (int i = 0; i < selectedFoodItems.size(); i++) {
-            if (i > 0) sql.append(" OR ");
-            sql.append("LOWER(I.iname) LIKE ?");
-        }
-        sql.append(") ");
-        if (!selectedRestrictions.isEmpty()) {
-            sql.append("AND NOT EXISTS (")
-                    .append("SELECT 1 FROM Recipe RC JOIN Allergen A ON RC.ingID = A.ingID ")
-                    .append("WHERE RC.mID = I.mID AND RC.iname = I.iname AND A.ingName IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedRestrictions.size(), "?")))
-                    .append(")) ");
+    // -------------------- Coordinate storage --------------------
+
+    // Whether Restaurant has numeric latitude/longitude columns; detected once, null until then.
+    private static volatile Boolean numericCoordinates;
+
+    /**
+     * @return true if the Restaurant table has been migrated to numeric latitude/longitude columns.
+     */
+    public static boolean usesNumericCoordinates() {
+        Boolean numeric = numericCoordinates;
+        if (numeric == null) {
+            try (Connection conn = DatabaseHelper.getConnection();
+                 ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, "Restaurant", "latitude")) {
+                numeric = rs.next();
+            } catch (Exception e) {
+                throw new RuntimeException("Error inspecting Restaurant columns: " + e.getMessage(), e);
+            }
+            numericCoordinates = numeric;
         }
+        return numeric;
+    }
+
+    /**
+     * Adds DOUBLE latitude/longitude columns to Restaurant if they are missing, and fills them
+     * from the "lat,lon" coordinates strings wherever they are still NULL. The string column is
+     * kept (and still written) so older clients continue to work; running this again backfills
+     * the rows those clients have inserted since, and finishes a migration that was interrupted
+     * after the columns were added.
+     *
+     * @return the number of rows backfilled
+     */
+    public static int migrateCoordinateColumns() {
+        int updated;
         try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            int index = 1;
-            if (!selectedCuisines.isEmpty()) {
-                for (String c : selectedCuisines) {
-                    pstmt.setString(index++, c);
-                }
-            }
-            if (!selectedMealTypes.isEmpty()) {
-                for (String m : selectedMealTypes) {
-                    pstmt.setString(index++, m);
-                }
-            }
-            for (String f : selectedFoodItems) {
-                pstmt.setString(index++, "%" + f.toLowerCase() + "%");
-            }
-            if (!selectedRestrictions.isEmpty()) {
-                for (String r : selectedRestrictions) {
-                    pstmt.setString(index++, r);
-                }
+             Statement stmt = conn.createStatement()) {
+            boolean hasColumns;
+            try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, "Restaurant", "latitude")) {
+                hasColumns = rs.next();
             }
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                int id = rs.getInt("rid");
-                String name = rs.getString("rname");
-                String cuisine = rs.getString("cuisine");
-                String price = rs.getString("price");
-                String rating = rs.getString("rating");
-                String coords = rs.getString("coordinates");
-                double lat = 0.0, lon = 0.0;
-                if (coords != null && coords.contains(",")) {
-                    String[] parts = coords.split(",");
-                    lat = Double.parseDouble(parts[0].trim());
-                    lon = Double.parseDouble(parts[1].trim());
-                }
-                list.add(new Restaurant(id, name, cuisine, price, rating, lat, lon));
+            if (!hasColumns) {
+                stmt.executeUpdate("ALTER TABLE Restaurant ADD COLUMN latitude DOUBLE NULL, ADD COLUMN longitude DOUBLE NULL");
             }
-            rs.close();
+            numericCoordinates = true;
+            updated = stmt.executeUpdate("UPDATE Restaurant SET " +
+                    "latitude = CAST(TRIM(SUBSTRING_INDEX(coordinates, ',', 1)) AS DECIMAL(10, 7)), " +
+                    "longitude = CAST(TRIM(SUBSTRING_INDEX(coordinates, ',', -1)) AS DECIMAL(10, 7)) " +
+                    "WHERE (latitude IS NULL OR longitude IS NULL) AND coordinates LIKE '%,%'");
         } catch (Exception e) {
-            e.printStackTrace();
+            throw new RuntimeException("Error migrating restaurant coordinates: " + e.getMessage(), e);
         }
-        return list;
+        Catalog.invalidate();
+        return updated;
     }
 
-    public static List<String> getMatchingItemsForRestaurant(int restaurantId,
-                                                             List<String> selectedMealTypes,
-                                                             List<String> selectedFoodItems,
-                                                             List<String> selectedRestrictions) {
-        List<String> items = new ArrayList<>();
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT DISTINCT I.iname ")
-                .append("FROM Menu M JOIN Item I ON M.mID = I.mID ")
-                .append("WHERE M.rid = ? ");
-        if (!selectedMealTypes.isEmpty()) {
-            sql.append("AND M.type IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedMealTypes.size(), "?")))
-                    .append(") ");
-        }
-        sql.append("AND (");
-        for (int i = 0; i < selectedFoodItems.size(); i++) {
-            if (i > 0) sql.append(" OR ");
-            sql.append("LOWER(I.iname) LIKE ?");
-        }
-        sql.append(") ");
-        if (!selectedRestrictions.isEmpty()) {
-            sql.append("AND NOT EXISTS (")
-                    .append("SELECT 1 FROM Recipe RC JOIN Allergen A ON RC.ingID = A.ingID ")
-                    .append("WHERE RC.mID = I.mID AND RC.iname = I.iname AND A.ingName IN (")
-                    .append(String.join(", ", Collections.nCopies(selectedRestrictions.size(), "?")))
-                    .append(")) ");
+    /**
+     * The select list understood by {@link #readRestaurant}: rid, rname, cuisine, price, rating,
+     * the legacy coordinates string and, once migrated, latitude and longitude. Once migrated the
+     * string is only selected for rows not yet backfilled, so it is not shipped with every row.
+     *
+     * @param alias table alias prefix, e.g. "R." or ""
+     */
+    static String restaurantColumns(String alias) {
+        String columns = alias + "rid, " + alias + "rname, " + alias + "cuisine, " + alias + "price, "
+                + alias + "rating, ";
+        return usesNumericCoordinates()
+                ? columns + "CASE WHEN " + alias + "latitude IS NULL OR " + alias + "longitude IS NULL THEN "
+                        + alias + "coordinates END, " + alias + "latitude, " + alias + "longitude"
+                : columns + alias + "coordinates";
+    }
+
+    // Maps the current row of a result set selecting restaurantColumns(...) as its first columns.
+    // Columns are read by position. In numeric mode the coordinates need no parsing, except for
+    // rows not yet backfilled (NULL latitude/longitude), which fall back to the string.
+    static Restaurant readRestaurant(ResultSet rs) throws SQLException {
+        double lat = 0.0, lon = 0.0;
+        boolean parsed = false;
+        if (usesNumericCoordinates()) {
+            lat = rs.getDouble(7);
+            boolean missing = rs.wasNull();
+            lon = rs.getDouble(8);
+            parsed = !missing && !rs.wasNull();
         }
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            int index = 1;
-            pstmt.setInt(index++, restaurantId);
-            if (!selectedMealTypes.isEmpty()) {
-                for (String m : selectedMealTypes) {
-                    pstmt.setString(index++, m);
-                }
-            }
-            for (String f : selectedFoodItems) {
-                pstmt.setString(index++, "%" + f.toLowerCase() + "%");
-            }
-            if (!selectedRestrictions.isEmpty()) {
-                for (String r : selectedRestrictions) {
-                    pstmt.setString(index++, r);
-                }
+        if (!parsed) {
+            lat = 0.0;
+            lon = 0.0;
+            String coords = rs.getString(6);
+            int comma = coords == null ? -1 : coords.indexOf(',');
+            if (comma >= 0) {
+                lat = Double.parseDouble(coords.substring(0, comma).trim());
+                lon = Double.parseDouble(coords.substring(comma + 1).trim());
             }
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                items.add(rs.getString("iname"));
-            }
-            rs.close();
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return items;
+        return new Restaurant(rs.getInt(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getString(5), lat, lon);
     }
 }
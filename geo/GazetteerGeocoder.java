@@ -0,0 +1,41 @@
+package FoodFinder.geo;
+
+import org.jxmapviewer.viewer.GeoPosition;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Looks addresses up in a local gazetteer file, so geocoding works offline and in tests.
+ *
+ * Each line is "address<TAB>latitude<TAB>longitude"; blank lines and lines starting with '#'
+ * are ignored. Addresses match after GeocodingService.normalize().
+ */
+public class GazetteerGeocoder implements GeocodingBackend {
+    private final Map<String, GeoPosition> entries = new HashMap<>();
+
+    public GazetteerGeocoder(Path file) throws IOException {
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\t");
+            try {
+                entries.put(GeocodingService.normalize(parts[0]),
+                        new GeoPosition(Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim())));
+            } catch (RuntimeException e) {
+                throw new IOException("Bad gazetteer line " + lineNumber + " in " + file + ": " + line, e);
+            }
+        }
+    }
+
+    @Override
+    public GeoPosition geocode(String address) {
+        return entries.get(GeocodingService.normalize(address));
+    }
+}
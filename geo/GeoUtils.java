@@ -0,0 +1,33 @@
+package FoodFinder.geo;
+
+public class GeoUtils {
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    public static final double KM_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    /**
+     * Great-circle distance between two points using the haversine formula.
+     *
+     * @return the distance in kilometres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Lower bound on the distance from a point to any point on the other side of the meridian
+     * at the given longitude (the great-circle distance to that meridian).
+     */
+    static double distanceToMeridianKm(double lat, double lon, double meridianLon) {
+        double dLon = Math.abs(lon - meridianLon);
+        if (dLon >= 90.0) {
+            return 0.0; // Too far round the globe for a useful bound.
+        }
+        double s = Math.sin(Math.toRadians(dLon)) * Math.cos(Math.toRadians(lat));
+        return EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.abs(s)));
+    }
+}
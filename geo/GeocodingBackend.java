@@ -0,0 +1,15 @@
+package FoodFinder.geo;
+
+import org.jxmapviewer.viewer.GeoPosition;
+import java.io.IOException;
+
+/**
+ * A source of address coordinates for GeocodingService.
+ */
+public interface GeocodingBackend {
+    /**
+     * @return the position of the address, or null if the backend does not know it
+     * @throws IOException if the backend could not be asked
+     */
+    GeoPosition geocode(String address) throws IOException;
+}
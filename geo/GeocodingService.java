@@ -0,0 +1,179 @@
+package FoodFinder.geo;
+
+import org.jxmapviewer.viewer.GeoPosition;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Turns addresses into coordinates off the calling thread.
+ *
+ * Backends are asked in order until one knows the address. Answers are kept in a cache that is
+ * appended to a file, so an address is looked up remotely at most once across runs, and
+ * concurrent requests for the same address share one lookup.
+ *
+ * The shared instance is configured with system properties:
+ * foodfinder.geocoder.gazetteer (a GazetteerGeocoder file, asked first),
+ * foodfinder.geocoder.offline (true to never call Nominatim),
+ * foodfinder.geocoder.url, foodfinder.geocoder.timeoutMs, foodfinder.geocoder.minIntervalMs
+ * (the Nominatim server, its timeouts and request spacing) and
+ * foodfinder.geocoder.cacheFile (default ~/.foodfinder/geocache.tsv; empty for no file).
+ */
+public class GeocodingService {
+    private static GeocodingService instance;
+
+    private final List<GeocodingBackend> backends;
+    private final Path cacheFile;
+    private final Map<String, GeoPosition> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<GeoPosition>> inFlight = new ConcurrentHashMap<>();
+    // One lookup at a time: the remote backend is rate limited anyway.
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "geocoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param cacheFile where answers are persisted, or null to keep them in memory only
+     */
+    public GeocodingService(List<GeocodingBackend> backends, Path cacheFile) {
+        this.backends = new ArrayList<>(backends);
+        this.cacheFile = cacheFile;
+        if (cacheFile != null) {
+            loadCache();
+        }
+    }
+
+    /**
+     * @return the shared service configured from system properties, created on first use
+     */
+    public static synchronized GeocodingService get() {
+        if (instance == null) {
+            List<GeocodingBackend> backends = new ArrayList<>();
+            String gazetteer = System.getProperty("foodfinder.geocoder.gazetteer");
+            if (gazetteer != null) {
+                try {
+                    backends.add(new GazetteerGeocoder(Paths.get(gazetteer)));
+                } catch (IOException e) {
+                    System.err.println("Gazetteer not loaded: " + e.getMessage());
+                }
+            }
+            if (!Boolean.getBoolean("foodfinder.geocoder.offline")) {
+                backends.add(new NominatimGeocoder(
+                        System.getProperty("foodfinder.geocoder.url", "https://nominatim.openstreetmap.org"),
+                        Integer.getInteger("foodfinder.geocoder.timeoutMs", 5000),
+                        Long.getLong("foodfinder.geocoder.minIntervalMs", 1000L)));
+            }
+            String cacheFile = System.getProperty("foodfinder.geocoder.cacheFile",
+                    Paths.get(System.getProperty("user.home"), ".foodfinder", "geocache.tsv").toString());
+            instance = new GeocodingService(backends, cacheFile.isEmpty() ? null : Paths.get(cacheFile));
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up an address. The future completes with null if no backend knows it, and
+     * exceptionally if a backend failed before one answered.
+     */
+    public CompletableFuture<GeoPosition> geocode(String address) {
+        String key = normalize(address);
+        GeoPosition cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<GeoPosition> created = new CompletableFuture<>();
+        CompletableFuture<GeoPosition> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        executor.execute(() -> {
+            try {
+                created.complete(lookUp(key, address));
+            } catch (Throwable t) {
+                created.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    private GeoPosition lookUp(String key, String address) throws IOException {
+        // Another request may have filled the cache while this one was queued.
+        GeoPosition cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        IOException failure = null;
+        for (GeocodingBackend backend : backends) {
+            try {
+                GeoPosition position = backend.geocode(address);
+                if (position != null) {
+                    cache.put(key, position);
+                    appendToCache(key, position);
+                    return position;
+                }
+            } catch (IOException e) {
+                failure = e; // Try the next backend; report this if none answers.
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    /**
+     * @return the address with case and whitespace differences removed, as used for cache keys
+     */
+    public static String normalize(String address) {
+        return address.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Cache file lines are "address<TAB>latitude<TAB>longitude"; later lines win.
+    private void loadCache() {
+        if (!Files.exists(cacheFile)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(cacheFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                if (parts.length == 3) {
+                    try {
+                        cache.put(parts[0], new GeoPosition(Double.parseDouble(parts[1]), Double.parseDouble(parts[2])));
+                    } catch (NumberFormatException e) {
+                        // Skip a line torn by an interrupted write.
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Geocoding cache not loaded: " + e.getMessage());
+        }
+    }
+
+    private synchronized void appendToCache(String key, GeoPosition position) {
+        if (cacheFile == null) {
+            return;
+        }
+        String line = key + "\t" + position.getLatitude() + "\t" + position.getLongitude();
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            Files.write(cacheFile, Collections.singletonList(line), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Geocoding cache not saved: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package FoodFinder.geo;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.jxmapviewer.viewer.GeoPosition;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Looks addresses up with a Nominatim search API.
+ *
+ * Requests are spaced at least minIntervalMs apart across all threads, as Nominatim's usage
+ * policy allows at most one request per second, and each has connect and read timeouts.
+ */
+public class NominatimGeocoder implements GeocodingBackend {
+    private final String baseUrl;
+    private final int timeoutMs;
+    private final long minIntervalMs;
+    private long nextRequestMillis = 0;
+
+    public NominatimGeocoder(String baseUrl, int timeoutMs, long minIntervalMs) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.timeoutMs = timeoutMs;
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    @Override
+    public GeoPosition geocode(String address) throws IOException {
+        awaitTurn();
+        URL url = new URL(baseUrl + "/search?q=" + URLEncoder.encode(address, "UTF-8") + "&format=json&limit=1");
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setRequestMethod("GET");
+            conn.setConnectTimeout(timeoutMs);
+            conn.setReadTimeout(timeoutMs);
+            // Nominatim requires a valid User-Agent.
+            conn.setRequestProperty("User-Agent", "FoodFinderApp/1.0 (your-email@example.com)");
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Geocoder returned HTTP " + conn.getResponseCode());
+            }
+            String response;
+            try (InputStream in = conn.getInputStream()) {
+                response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            JSONArray results = new JSONArray(response);
+            if (results.length() == 0) {
+                return null;
+            }
+            JSONObject firstResult = results.getJSONObject(0);
+            return new GeoPosition(firstResult.getDouble("lat"), firstResult.getDouble("lon"));
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * Reserves the next request slot and sleeps until it comes.
+     */
+    private void awaitTurn() throws IOException {
+        long waitMillis;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, nextRequestMillis);
+            nextRequestMillis = slot + minIntervalMs;
+            waitMillis = slot - now;
+        }
+        if (waitMillis > 0) {
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting to geocode", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package FoodFinder.geo;
+
+import FoodFinder.domain.Restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A static 2-d tree over restaurant coordinates supporting radius, bounding-box and
+ * k-nearest-neighbour queries.
+ *
+ * The tree is stored implicitly: the node for a range [lo, hi) is its middle element,
+ * split on latitude at even depths and longitude at odd depths. Queries that cross the
+ * antimeridian are not supported.
+ */
+public class RestaurantSpatialIndex {
+    private final Restaurant[] nodes;
+
+    public RestaurantSpatialIndex(List<Restaurant> restaurants) {
+        nodes = restaurants.toArray(new Restaurant[0]);
+        build(0, nodes.length, 0);
+    }
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        Arrays.sort(nodes, lo, hi, depth % 2 == 0 ? BY_LAT : BY_LON);
+        int mid = (lo + hi) >>> 1;
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    private static final Comparator<Restaurant> BY_LAT = Comparator.comparingDouble(r -> r.lat);
+    private static final Comparator<Restaurant> BY_LON = Comparator.comparingDouble(r -> r.lon);
+
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @return restaurants whose coordinates lie inside the box (inclusive)
+     */
+    public List<Restaurant> inBoundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+        List<Restaurant> out = new ArrayList<>();
+        box(0, nodes.length, 0, minLat, minLon, maxLat, maxLon, out);
+        return out;
+    }
+
+    private void box(int lo, int hi, int depth, double minLat, double minLon, double maxLat, double maxLon,
+                     List<Restaurant> out) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        Restaurant r = nodes[mid];
+        if (r.lat >= minLat && r.lat <= maxLat && r.lon >= minLon && r.lon <= maxLon) {
+            out.add(r);
+        }
+        double key = depth % 2 == 0 ? r.lat : r.lon;
+        double min = depth % 2 == 0 ? minLat : minLon;
+        double max = depth % 2 == 0 ? maxLat : maxLon;
+        if (min <= key) {
+            box(lo, mid, depth + 1, minLat, minLon, maxLat, maxLon, out);
+        }
+        if (max >= key) {
+            box(mid + 1, hi, depth + 1, minLat, minLon, maxLat, maxLon, out);
+        }
+    }
+
+    /**
+     * @return restaurants within radiusKm of the point, nearest first
+     */
+    public List<Restaurant> withinRadius(double lat, double lon, double radiusKm) {
+        double dLat = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(lat) + dLat)));
+        double dLon = Math.min(180.0, dLat / Math.max(cosLat, 1e-6));
+        List<Restaurant> out = new ArrayList<>();
+        for (Restaurant r : inBoundingBox(lat - dLat, lon - dLon, lat + dLat, lon + dLon)) {
+            if (GeoUtils.distanceKm(lat, lon, r.lat, r.lon) <= radiusKm) {
+                out.add(r);
+            }
+        }
+        out.sort(Comparator.comparingDouble(r -> GeoUtils.distanceKm(lat, lon, r.lat, r.lon)));
+        return out;
+    }
+
+    /**
+     * @return the k restaurants closest to the point, nearest first
+     */
+    public List<Restaurant> nearest(double lat, double lon, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // Max-heap on distance holding the best k found so far.
+        PriorityQueue<double[]> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b[0], a[0]));
+        nearest(0, nodes.length, 0, lat, lon, k, best);
+        List<Restaurant> out = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            out.add(nodes[(int) best.poll()[1]]);
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    private void nearest(int lo, int hi, int depth, double lat, double lon, int k, PriorityQueue<double[]> best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        Restaurant r = nodes[mid];
+        double d = GeoUtils.distanceKm(lat, lon, r.lat, r.lon);
+        if (best.size() < k) {
+            best.add(new double[]{d, mid});
+        } else if (d < best.peek()[0]) {
+            best.poll();
+            best.add(new double[]{d, mid});
+        }
+
+        boolean byLat = depth % 2 == 0;
+        double diff = byLat ? lat - r.lat : lon - r.lon;
+        int nearLo = diff < 0 ? lo : mid + 1;
+        int nearHi = diff < 0 ? mid : hi;
+        int farLo = diff < 0 ? mid + 1 : lo;
+        int farHi = diff < 0 ? hi : mid;
+        nearest(nearLo, nearHi, depth + 1, lat, lon, k, best);
+
+        double planeDistance = byLat
+                ? Math.abs(diff) * GeoUtils.KM_PER_DEGREE_LAT
+                : GeoUtils.distanceToMeridianKm(lat, lon, r.lon);
+        if (best.size() < k || planeDistance < best.peek()[0]) {
+            nearest(farLo, farHi, depth + 1, lat, lon, k, best);
+        }
+    }
+}
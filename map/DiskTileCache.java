@@ -0,0 +1,373 @@
+package FoodFinder.map;
+
+import org.jxmapviewer.cache.LocalCache;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A size-bounded, least-recently-used tile cache on disk, used as the tile factory's LocalCache.
+ *
+ * Each tile is one file named after a 64-bit hash of its URL. The index of cached tiles (hash,
+ * size, last access) is an open-addressing hash table in a memory-mapped file, so lookups and
+ * access-time updates are plain memory reads and writes and the index survives restarts
+ * without being read or written as a whole. When the tiles exceed the size budget, the least
+ * recently used ones are deleted until the cache is back under 90% of it.
+ *
+ * In offline mode a miss is answered with a blank tile instead of null, so the tile factory
+ * never falls back to the network. put() never stores that blank tile, and skips tiles already
+ * cached with the same size, since the tile factory puts back every tile it reads.
+ */
+public class DiskTileCache implements LocalCache {
+    private static final int MAGIC = 0x46465443; // "FFTC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 24; // hash (8), last access (8), size (4), unused (4)
+    private static final int TILE_SIZE = 256;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean offline;
+    private final int capacity;
+    private final int mask;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer index;
+    private final FileLock lock;
+    private long totalBytes;
+    private int count;
+    private byte[] blankTile;
+
+    /**
+     * Opens (or creates) the cache in the given directory.
+     *
+     * If another process (or cache) already holds the directory, the returned cache stores
+     * nothing and only answers blank tiles in offline mode.
+     */
+    public DiskTileCache(Path directory, long maxBytes, boolean offline) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.offline = offline;
+        // Room for the budget filled with small (4 KB) tiles at a load factor of at most 3/4.
+        this.capacity = Integer.highestOneBit((int) Math.min(1 << 20, Math.max(1024, maxBytes / 4096))) << 1;
+        this.mask = capacity - 1;
+        Files.createDirectories(directory);
+        indexChannel = FileChannel.open(directory.resolve("index.bin"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = indexChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            acquired = null; // held by another cache in this JVM
+        }
+        lock = acquired;
+        if (lock == null) {
+            System.err.println("Tile cache " + directory + " is in use by another process; not caching tiles.");
+            indexChannel.close();
+            index = null;
+            return;
+        }
+        boolean fresh = indexChannel.size() != HEADER_BYTES + (long) capacity * SLOT_BYTES;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        if (fresh || index.getInt(0) != MAGIC || index.getInt(4) != VERSION || index.getInt(8) != capacity) {
+            rebuildIndex();
+        } else {
+            for (int slot = 0; slot < capacity; slot++) {
+                if (hashAt(slot) != 0) {
+                    totalBytes += sizeAt(slot);
+                    count++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public InputStream get(URL url) throws IOException {
+        if (index == null || isLocal(url)) {
+            return offline && !isLocal(url) ? new ByteArrayInputStream(blankTile()) : null;
+        }
+        long hash = hash(url);
+        synchronized (this) {
+            int slot = find(hash);
+            if (slot < 0) {
+                return offline ? new ByteArrayInputStream(blankTile()) : null;
+            }
+            index.putLong(offset(slot) + 8, System.currentTimeMillis());
+        }
+        try {
+            return new ByteArrayInputStream(Files.readAllBytes(tilePath(hash)));
+        } catch (IOException e) {
+            // The file was removed behind the index's back.
+            synchronized (this) {
+                int slot = find(hash);
+                if (slot >= 0) {
+                    remove(slot);
+                }
+            }
+            return offline ? new ByteArrayInputStream(blankTile()) : null;
+        }
+    }
+
+    @Override
+    public void put(URL url, InputStream data) throws IOException {
+        if (index == null || isLocal(url)) {
+            return;
+        }
+        byte[] bytes = data.readAllBytes();
+        if (bytes.length == 0 || bytes.length > maxBytes / 10) {
+            return;
+        }
+        long hash = hash(url);
+        synchronized (this) {
+            if (blankTile != null && Arrays.equals(bytes, blankTile)) {
+                return; // our own offline placeholder coming back, not a real tile
+            }
+            int slot = find(hash);
+            if (slot >= 0 && sizeAt(slot) == bytes.length) {
+                // The tile factory puts back every tile it reads, cache hits included.
+                index.putLong(offset(slot) + 8, System.currentTimeMillis());
+                return;
+            }
+        }
+        Path path = tilePath(hash);
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), "tile", ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        List<Long> evicted;
+        synchronized (this) {
+            int slot = find(hash);
+            if (slot >= 0) {
+                totalBytes -= sizeAt(slot);
+            } else {
+                slot = insertionSlot(hash);
+                count++;
+            }
+            writeSlot(slot, hash, System.currentTimeMillis(), bytes.length);
+            totalBytes += bytes.length;
+            evicted = totalBytes > maxBytes || count > capacity * 3 / 4 ? evict() : null;
+        }
+        if (evicted != null) {
+            for (long h : evicted) {
+                Files.deleteIfExists(tilePath(h));
+            }
+        }
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getTileCount() {
+        return count;
+    }
+
+    // Tiles served from a local directory need no copy.
+    private static boolean isLocal(URL url) {
+        return "file".equals(url.getProtocol());
+    }
+
+    /**
+     * Removes least recently used entries until the cache is under 90% of both its size budget
+     * and its entry limit.
+     *
+     * @return the hashes of the removed tiles, whose files the caller deletes outside the lock
+     */
+    private List<Long> evict() {
+        long[] hashes = new long[count];
+        long[] lastAccess = new long[count];
+        int n = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long hash = hashAt(slot);
+            if (hash != 0) {
+                hashes[n] = hash;
+                lastAccess[n] = index.getLong(offset(slot) + 8);
+                n++;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastAccess[i]));
+        long cutoffBytes = maxBytes * 9 / 10;
+        int cutoffCount = capacity * 3 / 4 * 9 / 10;
+        List<Long> evicted = new ArrayList<>();
+        for (int i = 0; i < n && (totalBytes > cutoffBytes || count > cutoffCount); i++) {
+            long hash = hashes[order[i]];
+            remove(find(hash));
+            evicted.add(hash);
+        }
+        return evicted;
+    }
+
+    /**
+     * Recreates the index from the tile files on disk, using their modification time as the
+     * last access.
+     */
+    private void rebuildIndex() throws IOException {
+        for (int i = 0; i < HEADER_BYTES + capacity * SLOT_BYTES; i += 8) {
+            index.putLong(i, 0L);
+        }
+        index.putInt(0, MAGIC);
+        index.putInt(4, VERSION);
+        index.putInt(8, capacity);
+        totalBytes = 0;
+        count = 0;
+        List<Path> tiles = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".tile")).forEach(tiles::add);
+        }
+        for (Path tile : tiles) {
+            String name = tile.getFileName().toString();
+            long hash;
+            try {
+                hash = Long.parseUnsignedLong(name.substring(0, name.length() - ".tile".length()), 16);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (hash == 0 || find(hash) >= 0 || count >= capacity * 3 / 4) {
+                Files.deleteIfExists(tile);
+                continue;
+            }
+            long size = Files.size(tile);
+            writeSlot(insertionSlot(hash), hash, Files.getLastModifiedTime(tile).toMillis(), (int) size);
+            totalBytes += size;
+            count++;
+        }
+        if (totalBytes > maxBytes) {
+            for (long h : evict()) {
+                Files.deleteIfExists(tilePath(h));
+            }
+        }
+    }
+
+    // -------------------- Index hash table --------------------
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private long hashAt(int slot) {
+        return index.getLong(offset(slot));
+    }
+
+    private int sizeAt(int slot) {
+        return index.getInt(offset(slot) + 16);
+    }
+
+    private void writeSlot(int slot, long hash, long lastAccess, int size) {
+        int offset = offset(slot);
+        index.putLong(offset + 8, lastAccess);
+        index.putInt(offset + 16, size);
+        index.putLong(offset, hash); // written last so a torn write leaves an empty slot
+    }
+
+    private int home(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int find(long hash) {
+        for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+            long h = hashAt(slot);
+            if (h == hash) {
+                return slot;
+            }
+            if (h == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private int insertionSlot(long hash) {
+        int slot = home(hash);
+        while (hashAt(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a slot, shifting later entries of the same probe run back so lookups still find them.
+     */
+    private void remove(int slot) {
+        totalBytes -= sizeAt(slot);
+        count--;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long hash = hashAt(next);
+            if (hash == 0) {
+                break;
+            }
+            int home = home(hash);
+            // Move the entry into the hole unless its home lies cyclically in (hole, next].
+            boolean homeAfterHole = hole <= next ? home > hole && home <= next : home > hole || home <= next;
+            if (!homeAfterHole) {
+                writeSlot(hole, hash, index.getLong(offset(next) + 8), sizeAt(next));
+                hole = next;
+            }
+        }
+        index.putLong(offset(hole), 0L);
+    }
+
+    // -------------------- Tiles --------------------
+
+    // 64-bit FNV-1a of the URL; 0 is reserved for empty slots.
+    private static long hash(URL url) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : url.toExternalForm().getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private Path tilePath(long hash) {
+        String name = String.format("%016x", hash);
+        return directory.resolve(name.substring(0, 2)).resolve(name + ".tile");
+    }
+
+    private synchronized byte[] blankTile() {
+        if (blankTile == null) {
+            BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setColor(new Color(0xF2EFE9)); // OSM land colour
+            g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+            g.dispose();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ImageIO.write(image, "png", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            blankTile = out.toByteArray();
+        }
+        return blankTile;
+    }
+}
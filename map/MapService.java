@@ -0,0 +1,109 @@
+package FoodFinder.map;
+
+import FoodFinder.domain.Restaurant;
+import org.jxmapviewer.JXMapViewer;
+import org.jxmapviewer.OSMTileFactoryInfo;
+import org.jxmapviewer.input.PanMouseInputListener;
+import org.jxmapviewer.input.ZoomMouseWheelListenerCursor;
+import org.jxmapviewer.viewer.DefaultTileFactory;
+import org.jxmapviewer.viewer.GeoPosition;
+import org.jxmapviewer.viewer.TileFactory;
+import javax.swing.ToolTipManager;
+import java.awt.event.MouseAdapter;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Owns the application's single tile factory, and with it the in-memory tile cache, the tile
+ * loading threads and the disk tile cache.
+ *
+ * Every map viewer is created here on top of the shared factory, so a viewer is only a view
+ * position and an overlay: a tile fetched for one panel is already loaded for all others.
+ */
+public class MapService {
+    // Base URL of an OSM-layout ({zoom}/{x}/{y}.png) tile source: a local stand-in server or a
+    // file: URL of a tile directory. Unset means the public OpenStreetMap servers.
+    private static final String TILE_URL = System.getProperty("foodfinder.map.tileUrl");
+    // Never download from the public servers; tiles missing from the disk cache are drawn blank.
+    // A configured tileUrl is local and is still used.
+    private static final boolean OFFLINE = Boolean.getBoolean("foodfinder.map.offline") && TILE_URL == null;
+    private static final String CACHE_DIR = System.getProperty("foodfinder.map.cacheDir",
+            Paths.get(System.getProperty("user.home"), ".foodfinder", "tiles").toString());
+    // Disk cache budget; 0 disables the disk cache.
+    private static final long CACHE_MAX_MB = Long.getLong("foodfinder.map.cacheMaxMb", 256);
+
+    private static MapService instance;
+
+    private final DefaultTileFactory tileFactory;
+    private final DiskTileCache tileCache;
+
+    /**
+     * @return the shared map service, created on first use
+     */
+    public static synchronized MapService get() {
+        if (instance == null) {
+            instance = new MapService();
+        }
+        return instance;
+    }
+
+    private MapService() {
+        OSMTileFactoryInfo info = TILE_URL == null ? new OSMTileFactoryInfo()
+                : new OSMTileFactoryInfo("FoodFinder tiles", TILE_URL.replaceAll("/+$", ""));
+        tileFactory = new DefaultTileFactory(info);
+        tileCache = openTileCache();
+        if (tileCache != null) {
+            tileFactory.setLocalCache(tileCache);
+        }
+    }
+
+    /**
+     * @return the disk tile cache, or null if it is disabled or unavailable
+     */
+    private static DiskTileCache openTileCache() {
+        if (CACHE_MAX_MB <= 0 && !OFFLINE) {
+            return null;
+        }
+        try {
+            return new DiskTileCache(Paths.get(CACHE_DIR), Math.max(1, CACHE_MAX_MB) << 20, OFFLINE);
+        } catch (IOException e) {
+            System.err.println("Tile cache disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public TileFactory getTileFactory() {
+        return tileFactory;
+    }
+
+    /**
+     * @return the disk tile cache, or null if it is disabled or unavailable
+     */
+    public DiskTileCache getTileCache() {
+        return tileCache;
+    }
+
+    /**
+     * Creates a pannable, zoomable viewer on the shared tile factory showing the given restaurants.
+     */
+    public JXMapViewer createViewer(List<Restaurant> restaurants) {
+        JXMapViewer mapViewer = new JXMapViewer();
+        mapViewer.setTileFactory(tileFactory);
+        GeoPosition center = new GeoPosition(35.2704, -120.6631);
+        mapViewer.setZoom(5);
+        mapViewer.setAddressLocation(center);
+
+        ToolTipManager.sharedInstance().setInitialDelay(0);
+        ToolTipManager.sharedInstance().registerComponent(mapViewer);
+
+        MapUtils.setRestaurantWaypoints(mapViewer, restaurants);
+
+        MouseAdapter mia = new PanMouseInputListener(mapViewer);
+        mapViewer.addMouseListener(mia);
+        mapViewer.addMouseMotionListener(mia);
+        mapViewer.addMouseWheelListener(new ZoomMouseWheelListenerCursor(mapViewer));
+
+        return mapViewer;
+    }
+}
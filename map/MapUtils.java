@@ -2,43 +2,44 @@ package FoodFinder.map;
 
 import FoodFinder.domain.Restaurant;
 import org.jxmapviewer.JXMapViewer;
-import org.jxmapviewer.OSMTileFactoryInfo;
-import org.jxmapviewer.viewer.DefaultTileFactory;
 import org.jxmapviewer.viewer.GeoPosition;
-import org.jxmapviewer.input.PanMouseInputListener;
-import org.jxmapviewer.input.ZoomMouseWheelListenerCursor;
-import org.jxmapviewer.viewer.WaypointPainter;
-import javax.swing.ToolTipManager;
-import java.awt.event.MouseAdapter;
-import java.util.HashSet;
+import org.jxmapviewer.viewer.TileFactory;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
 import java.util.List;
-import java.util.Set;
 
 public class MapUtils {
+    /**
+     * Creates a map viewer on the shared tile factory of MapService.
+     */
     public static JXMapViewer createMapViewer(List<Restaurant> restaurants) {
-        JXMapViewer mapViewer = new JXMapViewer();
-        mapViewer.setTileFactory(new DefaultTileFactory(new OSMTileFactoryInfo()));
-        GeoPosition center = new GeoPosition(35.2704, -120.6631);
-        mapViewer.setZoom(5);
-        mapViewer.setAddressLocation(center);
-
-        ToolTipManager.sharedInstance().setInitialDelay(0);
-        ToolTipManager.sharedInstance().registerComponent(mapViewer);
-
-        Set<RestaurantWaypoint> restaurantWaypoints = new HashSet<>();
-        for (Restaurant res : restaurants) {
-            restaurantWaypoints.add(new RestaurantWaypoint(res));
-        }
-        WaypointPainter<RestaurantWaypoint> waypointPainter = new WaypointPainter<>();
-        waypointPainter.setWaypoints(restaurantWaypoints);
-        waypointPainter.setRenderer(new RestaurantWaypointRenderer());
-        mapViewer.setOverlayPainter(waypointPainter);
+        return MapService.get().createViewer(restaurants);
+    }
 
-        MouseAdapter mia = new PanMouseInputListener(mapViewer);
-        mapViewer.addMouseListener(mia);
-        mapViewer.addMouseMotionListener(mia);
-        mapViewer.addMouseWheelListener(new ZoomMouseWheelListenerCursor(mapViewer));
+    /**
+     * Replaces the map's overlay with a waypoint for each of the given restaurants.
+     *
+     * @return the new overlay, which can be updated in place
+     */
+    public static RestaurantWaypointLayer setRestaurantWaypoints(JXMapViewer mapViewer, List<Restaurant> restaurants) {
+        RestaurantWaypointLayer layer = new RestaurantWaypointLayer(new RestaurantWaypointRenderer());
+        layer.setRestaurants(restaurants);
+        mapViewer.setOverlayPainter(layer);
+        return layer;
+    }
 
-        return mapViewer;
+    /**
+     * Returns the geographic box currently visible in the map viewer.
+     *
+     * @return {minLat, minLon, maxLat, maxLon}
+     */
+    public static double[] getVisibleBounds(JXMapViewer mapViewer) {
+        Rectangle viewport = mapViewer.getViewportBounds();
+        TileFactory tileFactory = mapViewer.getTileFactory();
+        int zoom = mapViewer.getZoom();
+        GeoPosition northWest = tileFactory.pixelToGeo(new Point2D.Double(viewport.getMinX(), viewport.getMinY()), zoom);
+        GeoPosition southEast = tileFactory.pixelToGeo(new Point2D.Double(viewport.getMaxX(), viewport.getMaxY()), zoom);
+        return new double[]{southEast.getLatitude(), northWest.getLongitude(),
+                northWest.getLatitude(), southEast.getLongitude()};
     }
 }
@@ -0,0 +1,178 @@
+package FoodFinder.map;
+
+import FoodFinder.domain.Restaurant;
+import org.jxmapviewer.JXMapViewer;
+import org.jxmapviewer.painter.AbstractPainter;
+import org.jxmapviewer.viewer.TileFactory;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A map overlay of restaurant waypoints keyed by restaurant id.
+ *
+ * Unlike WaypointPainter, whose waypoint set can only be replaced as a whole, single
+ * restaurants can be added and removed in place, so an admin edit does not rebuild the overlay.
+ *
+ * Waypoints are clustered on a grid of -Dfoodfinder.map.clusterCellPx (default 60) screen
+ * pixels: a cell holding one waypoint paints it with the renderer, a cell holding several
+ * paints one badge with their count at their centre. The grid of each zoom level is built the
+ * first time that level is painted and kept until the waypoints change, and only the cells
+ * overlapping the viewport are painted.
+ */
+public class RestaurantWaypointLayer extends AbstractPainter<JXMapViewer> {
+    private static final int CELL_PX = Integer.getInteger("foodfinder.map.clusterCellPx", 60);
+    private static final Color BADGE_FILL = new Color(0, 0, 139); // dark blue, as single markers
+    private static final Color BADGE_TEXT = Color.WHITE;
+    private static final Font BADGE_FONT = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Stroke BADGE_OUTLINE = new BasicStroke(2f);
+
+    private final Map<Integer, RestaurantWaypoint> waypoints = new LinkedHashMap<>();
+    private final RestaurantWaypointRenderer renderer;
+    // Cluster grid per zoom level, keyed by cellKey(column, row).
+    private final Map<Integer, Map<Long, Cluster>> clustersByZoom = new HashMap<>();
+
+    /**
+     * The waypoints that fall into one grid cell at one zoom level.
+     */
+    private static class Cluster {
+        RestaurantWaypoint first;
+        int count;
+        double sumX;
+        double sumY;
+
+        void add(RestaurantWaypoint waypoint, Point2D pixel) {
+            if (count++ == 0) {
+                first = waypoint;
+            }
+            sumX += pixel.getX();
+            sumY += pixel.getY();
+        }
+    }
+
+    public RestaurantWaypointLayer(RestaurantWaypointRenderer renderer) {
+        this.renderer = renderer;
+        setAntialiasing(true);
+        setCacheable(false);
+    }
+
+    /**
+     * @return the renderer of single waypoints, e.g. to change which restaurant is selected
+     */
+    public RestaurantWaypointRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Replaces all waypoints with one per given restaurant.
+     */
+    public void setRestaurants(List<Restaurant> restaurants) {
+        waypoints.clear();
+        for (Restaurant restaurant : restaurants) {
+            waypoints.put(restaurant.id, new RestaurantWaypoint(restaurant));
+        }
+        clustersByZoom.clear();
+    }
+
+    /**
+     * Adds (or replaces) the waypoint of one restaurant.
+     */
+    public void add(Restaurant restaurant) {
+        waypoints.put(restaurant.id, new RestaurantWaypoint(restaurant));
+        clustersByZoom.clear();
+    }
+
+    /**
+     * Removes the waypoint of the restaurant with the given id.
+     *
+     * @return true if there was one
+     */
+    public boolean remove(int restaurantId) {
+        if (waypoints.remove(restaurantId) == null) {
+            return false;
+        }
+        clustersByZoom.clear();
+        return true;
+    }
+
+    public int size() {
+        return waypoints.size();
+    }
+
+    @Override
+    protected void doPaint(Graphics2D g, JXMapViewer map, int width, int height) {
+        Map<Long, Cluster> clusters = clustersByZoom.computeIfAbsent(map.getZoom(),
+                zoom -> buildClusters(map.getTileFactory(), zoom));
+        Rectangle viewport = map.getViewportBounds();
+        g.translate(-viewport.getX(), -viewport.getY());
+        // One extra cell on every side catches markers whose centre lies just off screen.
+        int firstColumn = Math.floorDiv(viewport.x, CELL_PX) - 1;
+        int lastColumn = Math.floorDiv(viewport.x + viewport.width, CELL_PX) + 1;
+        int firstRow = Math.floorDiv(viewport.y, CELL_PX) - 1;
+        int lastRow = Math.floorDiv(viewport.y + viewport.height, CELL_PX) + 1;
+        if ((long) (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1) > clusters.size()) {
+            // Fewer clusters than visible cells: test each cluster instead of each cell.
+            for (Map.Entry<Long, Cluster> entry : clusters.entrySet()) {
+                int column = (int) (entry.getKey() >> 32);
+                int row = (int) (long) entry.getKey();
+                if (column >= firstColumn && column <= lastColumn && row >= firstRow && row <= lastRow) {
+                    paintCluster(g, map, entry.getValue());
+                }
+            }
+        } else {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    Cluster cluster = clusters.get(cellKey(column, row));
+                    if (cluster != null) {
+                        paintCluster(g, map, cluster);
+                    }
+                }
+            }
+        }
+        g.translate(viewport.getX(), viewport.getY());
+    }
+
+    private Map<Long, Cluster> buildClusters(TileFactory tileFactory, int zoom) {
+        Map<Long, Cluster> clusters = new HashMap<>();
+        for (RestaurantWaypoint waypoint : waypoints.values()) {
+            Point2D pixel = tileFactory.geoToPixel(waypoint.getPosition(), zoom);
+            long key = cellKey(Math.floorDiv((int) pixel.getX(), CELL_PX), Math.floorDiv((int) pixel.getY(), CELL_PX));
+            clusters.computeIfAbsent(key, k -> new Cluster()).add(waypoint, pixel);
+        }
+        return clusters;
+    }
+
+    private static long cellKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    private void paintCluster(Graphics2D g, JXMapViewer map, Cluster cluster) {
+        if (cluster.count == 1) {
+            renderer.paintWaypoint(g, map, cluster.first);
+            return;
+        }
+        int x = (int) (cluster.sumX / cluster.count);
+        int y = (int) (cluster.sumY / cluster.count);
+        String text = String.valueOf(cluster.count);
+        g.setFont(BADGE_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int radius = Math.max(14, fm.stringWidth(text) / 2 + 8);
+        g.setColor(BADGE_FILL);
+        g.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+        g.setColor(BADGE_TEXT);
+        Stroke stroke = g.getStroke();
+        g.setStroke(BADGE_OUTLINE);
+        g.drawOval(x - radius, y - radius, 2 * radius, 2 * radius);
+        g.setStroke(stroke);
+        g.drawString(text, x - fm.stringWidth(text) / 2, y + fm.getAscent() / 2 - 2);
+    }
+}
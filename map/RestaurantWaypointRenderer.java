@@ -6,24 +6,129 @@ import java.awt.Graphics2D;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Color;
+import java.awt.BasicStroke;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Paints a restaurant as a marker showing its price tier ("$" to "$$$$$").
+ *
+ * Each marker style (tier, selected, highlighted, display scale) is rasterized once into a
+ * shared sprite and afterwards only blitted, so no colours, fonts or text metrics are created
+ * per marker. Sprites are drawn at the device scale of the target graphics, so they stay sharp
+ * on HiDPI screens.
+ */
 public class RestaurantWaypointRenderer implements WaypointRenderer<RestaurantWaypoint> {
+    private static final int RADIUS = 10;
+    private static final int HALO = 3;
+    private static final Color FILL = new Color(0, 0, 139); // dark blue
+    private static final Color SELECTED_FILL = new Color(0xFF6666);
+    private static final Color HIGHLIGHT = new Color(255, 200, 0);
+    private static final Color TEXT = Color.WHITE;
+    private static final Font FONT = new Font(Font.DIALOG, Font.BOLD, 16);
+
+    // Sprites keyed by style (see sprite()); shared by all renderers since they never change.
+    private static final ConcurrentHashMap<Integer, Sprite> SPRITES = new ConcurrentHashMap<>();
+
+    private int selectedRestaurantId = -1;
+    private Set<Integer> highlightedRestaurantIds = Collections.emptySet();
+
+    /**
+     * A rasterized marker and its size in user-space pixels; it is drawn centred on the waypoint.
+     */
+    private static class Sprite {
+        final BufferedImage image;
+        final int width;
+        final int height;
+
+        Sprite(BufferedImage image, int width, int height) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Paints the restaurant with the given id (or none for -1) in the selected style.
+     */
+    public void setSelectedRestaurant(int restaurantId) {
+        this.selectedRestaurantId = restaurantId;
+    }
+
+    /**
+     * Paints the restaurants with the given ids with a highlight ring.
+     */
+    public void setHighlightedRestaurants(Set<Integer> restaurantIds) {
+        this.highlightedRestaurantIds = restaurantIds;
+    }
+
     @Override
     public void paintWaypoint(Graphics2D g, JXMapViewer map, RestaurantWaypoint wp) {
         Point2D pt = map.getTileFactory().geoToPixel(wp.getPosition(), map.getZoom());
-        int x = (int) pt.getX();
-        int y = (int) pt.getY();
-        int radius = 10;
-        g.setColor(new Color(0, 0, 139)); // dark blue
-        g.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
-        g.setColor(Color.WHITE);
-        Font font = g.getFont().deriveFont(Font.BOLD, 16f);
-        g.setFont(font);
-        FontMetrics fm = g.getFontMetrics();
-        String text = "$";
+        int id = wp.restaurant.id;
+        Sprite sprite = sprite(priceTier(wp.restaurant.price), id == selectedRestaurantId,
+                highlightedRestaurantIds.contains(id), g.getTransform().getScaleX());
+        g.drawImage(sprite.image, (int) pt.getX() - sprite.width / 2, (int) pt.getY() - sprite.height / 2,
+                sprite.width, sprite.height, null);
+    }
+
+    /**
+     * @return the number of "$" in the price, between 1 and 5
+     */
+    static int priceTier(String price) {
+        int tier = 0;
+        if (price != null) {
+            for (int i = 0; i < price.length(); i++) {
+                if (price.charAt(i) == '$') {
+                    tier++;
+                }
+            }
+        }
+        return Math.max(1, Math.min(5, tier));
+    }
+
+    private static Sprite sprite(int tier, boolean selected, boolean highlighted, double scale) {
+        // Scales are quantized to 1/4 so that fractional desktop scaling still reuses sprites.
+        int quarterScale = Math.max(4, (int) Math.round(scale * 4));
+        int key = tier | (selected ? 8 : 0) | (highlighted ? 16 : 0) | quarterScale << 5;
+        return SPRITES.computeIfAbsent(key, k -> rasterize(tier, selected, highlighted, quarterScale / 4.0));
+    }
+
+    /**
+     * Draws one marker: a circle for one "$", widening into a pill for more.
+     */
+    private static Sprite rasterize(int tier, boolean selected, boolean highlighted, double scale) {
+        String text = "$".repeat(tier);
+        Graphics2D measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics fm = measure.getFontMetrics(FONT);
+        measure.dispose();
         int textWidth = fm.stringWidth(text);
-        int textHeight = fm.getAscent();
-        g.drawString(text, x - textWidth / 2, y + textHeight / 2 - 2);
+        int bodyWidth = Math.max(2 * RADIUS, textWidth + RADIUS);
+        int width = bodyWidth + 2 * HALO;
+        int height = 2 * RADIUS + 2 * HALO;
+
+        BufferedImage image = new BufferedImage((int) Math.ceil(width * scale), (int) Math.ceil(height * scale),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.transform(AffineTransform.getScaleInstance(scale, scale));
+        if (highlighted) {
+            g.setColor(HIGHLIGHT);
+            g.setStroke(new BasicStroke(HALO));
+            g.drawRoundRect(HALO / 2, HALO / 2, width - HALO, height - HALO, height - HALO, height - HALO);
+        }
+        g.setColor(selected ? SELECTED_FILL : FILL);
+        g.fillRoundRect(HALO, HALO, bodyWidth, 2 * RADIUS, 2 * RADIUS, 2 * RADIUS);
+        g.setColor(TEXT);
+        g.setFont(FONT);
+        g.drawString(text, (width - textWidth) / 2, height / 2 + fm.getAscent() / 2 - 2);
+        g.dispose();
+        return new Sprite(image, width, height);
     }
 }
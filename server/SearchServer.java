@@ -0,0 +1,420 @@
+package FoodFinder.server;
+
+import FoodFinder.catalog.Catalog;
+import FoodFinder.catalog.CatalogQueryEngine;
+import FoodFinder.dao.AsyncDAO;
+import FoodFinder.dao.MenuDAO;
+import FoodFinder.dao.PreferenceStore;
+import FoodFinder.dao.UserProfileDAO;
+import FoodFinder.domain.Menu;
+import FoodFinder.domain.MenuItem;
+import FoodFinder.domain.Restaurant;
+import FoodFinder.domain.UserProfile;
+import FoodFinder.session.PreferenceSet;
+import FoodFinder.session.Preferences;
+import FoodFinder.session.Session;
+import FoodFinder.session.SessionRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Serves the search wizard's queries as JSON over the JDK's built-in HTTP server.
+ *
+ * Every request runs on the data-access executor (a virtual thread per request where the
+ * runtime supports it) and is answered from the shared in-memory catalog, so all clients share
+ * one warmed cache; only the allergen list and logins are read through the connection pool.
+ *
+ * GET endpoints; list parameters are repeated, e.g. ?cuisine=Thai&amp;cuisine=Indian:
+ * /api/cuisines,
+ * /api/meal-types?cuisine=,
+ * /api/allergens,
+ * /api/food-items?cuisine=&amp;mealType=&amp;restriction=,
+ * /api/restaurants?cuisine=&amp;mealType=&amp;foodItem=&amp;restriction= and
+ * /api/restaurants/{id}/menus.
+ *
+ * Sessions: POST /api/session with {"username", "password"} logs in and returns a token, which
+ * later requests send in the X-Session-Token header; DELETE /api/session logs out. With a token,
+ * absent list parameters default to the user's saved preferences, restaurant results are cached
+ * in the session, and GET/PUT /api/session/preferences read and replace the saved preferences
+ * (PUT takes {"cuisines": [...], "mealTypes": [...], "restrictions": [...], "foodItems": [...]};
+ * absent lists are left as they are).
+ */
+public class SearchServer {
+    public static final String TOKEN_HEADER = "X-Session-Token";
+
+    private final HttpServer server;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "FoodFinder-session-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SearchServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(AsyncDAO.executor());
+        server.createContext("/api/cuisines", get(params ->
+                new JSONArray(Catalog.queries().getDistinctCuisines())));
+        server.createContext("/api/meal-types", get(params ->
+                new JSONArray(Catalog.queries().getMealTypesForCuisines(
+                        params.listOrSaved("cuisine", Preferences::getCuisines)))));
+        server.createContext("/api/allergens", get(params ->
+                new JSONArray(MenuDAO.getAllergens())));
+        server.createContext("/api/food-items", get(params ->
+                new JSONArray(Catalog.queries().getFilteredFoodItems(
+                        params.listOrSaved("cuisine", Preferences::getCuisines),
+                        params.listOrSaved("mealType", Preferences::getMealTypes),
+                        params.listOrSaved("restriction", Preferences::getRestrictions)))));
+        server.createContext("/api/restaurants", this::handleRestaurants);
+
+        Map<String, Query> session = new LinkedHashMap<>();
+        session.put("POST", SearchServer::login);
+        session.put("DELETE", SearchServer::logout);
+        server.createContext("/api/session", endpoint(session));
+        Map<String, Query> preferences = new LinkedHashMap<>();
+        preferences.put("GET", params -> preferencesJson(params.requireSession().getPreferences()));
+        preferences.put("PUT", SearchServer::replacePreferences);
+        server.createContext("/api/session/preferences", endpoint(preferences));
+    }
+
+    public void start() {
+        server.start();
+        // Expired sessions are otherwise only dropped when looked up or when the registry is full.
+        sweeper.scheduleWithFixedDelay(SessionRegistry.shared()::sweepExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given number of seconds for running ones.
+     */
+    public void stop(int delaySeconds) {
+        sweeper.shutdownNow();
+        server.stop(delaySeconds);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // /api/restaurants and /api/restaurants/{id}/menus
+    private void handleRestaurants(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().replaceAll("/+$", "");
+        if (path.equals("/api/restaurants")) {
+            get(SearchServer::restaurantsJson).handle(exchange);
+            return;
+        }
+        String[] parts = path.split("/");
+        if (parts.length == 5 && parts[4].equals("menus")) {
+            int restaurantId;
+            try {
+                restaurantId = Integer.parseInt(parts[3]);
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid restaurant id: " + parts[3]);
+                exchange.close();
+                return;
+            }
+            get(params -> {
+                CatalogQueryEngine queries = Catalog.queries();
+                if (queries.getSnapshot().restaurantIndex(restaurantId) < 0) {
+                    throw new ClientError(404, "Unknown restaurant: " + restaurantId);
+                }
+                return menusJson(queries.getMenusForRestaurant(restaurantId));
+            }).handle(exchange);
+            return;
+        }
+        sendError(exchange, 404, "Not found: " + path);
+        exchange.close();
+    }
+
+    private static JSONArray restaurantsJson(Params params) {
+        CatalogQueryEngine queries = Catalog.queries();
+        List<String> cuisines = params.listOrSaved("cuisine", Preferences::getCuisines);
+        List<String> mealTypes = params.listOrSaved("mealType", Preferences::getMealTypes);
+        List<String> foodItems = params.listOrSaved("foodItem", Preferences::getFoodItems);
+        List<String> restrictions = params.listOrSaved("restriction", Preferences::getRestrictions);
+        // Cached per session and keyed by the snapshot too, so a reloaded catalog is never answered from the cache.
+        List<Object> key = Arrays.asList("restaurants", queries.getSnapshot().getVersion(),
+                cuisines, mealTypes, foodItems, restrictions);
+        if (params.session != null) {
+            JSONArray cached = params.session.getCachedResult(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Map<Restaurant, List<String>> results = queries.getFilteredRestaurantsWithMatchingItems(
+                cuisines, mealTypes, foodItems, restrictions);
+        JSONArray array = new JSONArray();
+        for (Map.Entry<Restaurant, List<String>> entry : results.entrySet()) {
+            Restaurant r = entry.getKey();
+            array.put(new JSONObject()
+                    .put("id", r.id)
+                    .put("name", r.name)
+                    .put("cuisine", r.cuisine)
+                    .put("price", r.price)
+                    .put("rating", r.rating)
+                    .put("lat", r.lat)
+                    .put("lon", r.lon)
+                    .put("matchingItems", new JSONArray(entry.getValue())));
+        }
+        if (params.session != null) {
+            params.session.cacheResult(key, array);
+        }
+        return array;
+    }
+
+    private static JSONArray menusJson(List<Menu> menus) {
+        JSONArray array = new JSONArray();
+        for (Menu menu : menus) {
+            JSONArray items = new JSONArray();
+            for (MenuItem item : menu.items) {
+                items.put(new JSONObject()
+                        .put("name", item.name)
+                        .put("recipe", item.recipe)
+                        .put("allergens", new JSONArray(item.allergens)));
+            }
+            array.put(new JSONObject().put("id", menu.id).put("type", menu.type).put("items", items));
+        }
+        return array;
+    }
+
+    // -------------------- Sessions --------------------
+
+    private static JSONObject login(Params params) {
+        JSONObject body = params.requireBody();
+        UserProfile user = UserProfileDAO.authenticate(body.optString("username"), body.optString("password"));
+        if (user == null) {
+            throw new ClientError(401, "Invalid username or password");
+        }
+        PreferenceStore.shared().markStored(user);
+        Session session = SessionRegistry.shared().create(user);
+        return new JSONObject()
+                .put("token", session.getToken())
+                .put("preferences", preferencesJson(session.getPreferences()));
+    }
+
+    private static JSONObject logout(Params params) {
+        Session session = params.requireSession();
+        SessionRegistry.shared().remove(session.getToken());
+        PreferenceStore.shared().flush();
+        return new JSONObject();
+    }
+
+    private static JSONObject replacePreferences(Params params) {
+        Session session = params.requireSession();
+        JSONObject body = params.requireBody();
+        // One update at a time per session, so the profile and the queued row stay consistent.
+        synchronized (session) {
+            Preferences current = session.getPreferences();
+            session.setPreferences(new Preferences(
+                    listOr(body, "cuisines", current.getCuisines()),
+                    listOr(body, "mealTypes", current.getMealTypes()),
+                    listOr(body, "restrictions", current.getRestrictions()),
+                    listOr(body, "foodItems", current.getFoodItems())));
+            PreferenceStore.shared().update(session.getUser());
+            return preferencesJson(session.getPreferences());
+        }
+    }
+
+    private static Collection<String> listOr(JSONObject body, String name, Collection<String> current) {
+        JSONArray array = body.optJSONArray(name);
+        if (array == null) {
+            return current;
+        }
+        List<String> values = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            values.add(array.getString(i));
+        }
+        return values;
+    }
+
+    private static JSONObject preferencesJson(Preferences preferences) {
+        return new JSONObject()
+                .put("cuisines", new JSONArray(preferences.getCuisines()))
+                .put("mealTypes", new JSONArray(preferences.getMealTypes()))
+                .put("restrictions", new JSONArray(preferences.getRestrictions()))
+                .put("foodItems", new JSONArray(preferences.getFoodItems()));
+    }
+
+    // -------------------- Request plumbing --------------------
+
+    private interface Query {
+        Object answer(Params params);
+    }
+
+    /**
+     * Thrown by a query to answer with a 4xx status and its message.
+     */
+    private static class ClientError extends RuntimeException {
+        final int status;
+
+        ClientError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Wraps a query as a GET-only handler that writes its answer as JSON.
+     */
+    private static HttpHandler get(Query query) {
+        return endpoint(Collections.singletonMap("GET", query));
+    }
+
+    /**
+     * Wraps one query per HTTP method as a handler that writes the answer as JSON. The session
+     * named by the token header, if any, is resolved first; an unknown or expired token is a 401.
+     */
+    private static HttpHandler endpoint(Map<String, Query> queries) {
+        return exchange -> {
+            try {
+                Query query = queries.get(exchange.getRequestMethod());
+                if (query == null) {
+                    exchange.getResponseHeaders().set("Allow", String.join(", ", queries.keySet()));
+                    sendError(exchange, 405, "Only " + String.join(", ", queries.keySet()) + " supported");
+                    return;
+                }
+                Params params;
+                try {
+                    params = Params.parse(exchange.getRequestURI().getRawQuery());
+                } catch (IllegalArgumentException e) {
+                    sendError(exchange, 400, "Malformed query string");
+                    return;
+                }
+                String token = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+                if (token != null) {
+                    params.session = SessionRegistry.shared().get(token);
+                    if (params.session == null) {
+                        sendError(exchange, 401, "Unknown or expired session token");
+                        return;
+                    }
+                }
+                Object answer;
+                try {
+                    params.body = readBody(exchange);
+                    answer = query.answer(params);
+                } catch (ClientError e) {
+                    sendError(exchange, e.status, e.getMessage());
+                    return;
+                } catch (JSONException e) {
+                    sendError(exchange, 400, "Malformed JSON body");
+                    return;
+                } catch (RuntimeException e) {
+                    // Details (SQL, driver messages) go to the log, not to the client.
+                    System.err.println("Error answering " + exchange.getRequestURI() + ": " + e.getMessage());
+                    e.printStackTrace();
+                    sendError(exchange, 500, "Internal server error");
+                    return;
+                }
+                send(exchange, 200, answer.toString());
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    // The request body as JSON, or null if there is none.
+    private static JSONObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+            return body.isEmpty() ? null : new JSONObject(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, new JSONObject().put("error", message == null ? "" : message).toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Decoded query parameters (a name may occur several times), the JSON body and the
+     * caller's session, if any.
+     */
+    private static class Params {
+        private final Map<String, List<String>> values = new HashMap<>();
+        Session session;
+        JSONObject body;
+
+        static Params parse(String rawQuery) {
+            Params params = new Params();
+            if (rawQuery == null || rawQuery.isEmpty()) {
+                return params;
+            }
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                String name = decode(eq < 0 ? pair : pair.substring(0, eq));
+                String value = eq < 0 ? "" : decode(pair.substring(eq + 1));
+                if (!value.isEmpty()) {
+                    params.values.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+                }
+            }
+            return params;
+        }
+
+        private static String decode(String s) {
+            try {
+                return URLDecoder.decode(s, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * @return the parameter's values or, if it is absent and there is a session, the
+         *         matching saved preference
+         */
+        List<String> listOrSaved(String name, Function<Preferences, PreferenceSet> saved) {
+            List<String> given = values.get(name);
+            if (given != null || session == null) {
+                return given != null ? given : new ArrayList<>();
+            }
+            return new ArrayList<>(saved.apply(session.getPreferences()));
+        }
+
+        Session requireSession() {
+            if (session == null) {
+                throw new ClientError(401, "This request needs a " + TOKEN_HEADER + " header");
+            }
+            return session;
+        }
+
+        JSONObject requireBody() {
+            if (body == null) {
+                throw new ClientError(400, "Missing JSON body");
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package FoodFinder.session;
+
+import FoodFinder.catalog.CatalogSnapshot;
+import FoodFinder.catalog.NameDictionary;
+
+/**
+ * The kinds of saved selection, each encoded against the matching dictionary of the catalog
+ * snapshot.
+ */
+public enum PreferenceCategory {
+    CUISINES(true) {
+        @Override
+        NameDictionary dictionary(CatalogSnapshot snapshot) { return snapshot.cuisines(); }
+    },
+    MEAL_TYPES(true) {
+        @Override
+        NameDictionary dictionary(CatalogSnapshot snapshot) { return snapshot.mealTypes(); }
+    },
+    RESTRICTIONS(true) {
+        @Override
+        NameDictionary dictionary(CatalogSnapshot snapshot) { return snapshot.allergens(); }
+    },
+    // Thousands of items of which a user picks a few: kept as sorted ids rather than bits.
+    FOOD_ITEMS(false) {
+        @Override
+        NameDictionary dictionary(CatalogSnapshot snapshot) { return snapshot.foodItems(); }
+    };
+
+    private final boolean dense;
+
+    PreferenceCategory(boolean dense) {
+        this.dense = dense;
+    }
+
+    /**
+     * @return whether selections of this category are encoded as bit sets
+     */
+    boolean isDense() {
+        return dense;
+    }
+
+    abstract NameDictionary dictionary(CatalogSnapshot snapshot);
+}
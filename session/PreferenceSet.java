@@ -0,0 +1,229 @@
+package FoodFinder.session;
+
+import FoodFinder.catalog.Catalog;
+import FoodFinder.catalog.CatalogSnapshot;
+import FoodFinder.catalog.NameDictionary;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of selected names of one PreferenceCategory, kept in the order they were
+ * selected (and stored) and matched case-insensitively, like the database collation.
+ *
+ * For contains(), the names are encoded against the category's dictionary in the loaded
+ * catalog snapshot: a bit set of ordinals for the small dictionaries and a sorted ordinal array
+ * for food items, so a lookup is the dictionary's hash lookup (which lowercases the probe) and a
+ * bit test or binary search, instead of a scan over the names. The encoding is built on first
+ * use and rebuilt when the catalog is reloaded; names the catalog does not know are kept and
+ * compared directly. No process-wide table of names is kept, so stale or misspelt names live
+ * only as long as the set.
+ *
+ * Repeats are dropped case-insensitively, and equals() and hashCode() compare the lowercased
+ * names, so two sets differing only in case are equal.
+ *
+ * The stored form is the names joined with commas, as in the UserProfile columns; decode()
+ * and encode() convert between the two without changing the order.
+ */
+public final class PreferenceSet extends AbstractSet<String> {
+    private final PreferenceCategory category;
+    private final String[] names;
+    private volatile Encoding encoding;
+
+    /**
+     * The names encoded against one dictionary.
+     */
+    private static final class Encoding {
+        final NameDictionary dictionary;
+        final long[] bits;        // dense categories
+        final int[] ordinals;     // sparse categories, sorted
+        final String[] unknown;   // lowercased names not in the dictionary
+
+        Encoding(PreferenceCategory category, NameDictionary dictionary, String[] names) {
+            this.dictionary = dictionary;
+            int[] known = new int[names.length];
+            int knownCount = 0;
+            List<String> missing = new ArrayList<>();
+            for (String name : names) {
+                int ordinal = dictionary.ordinal(name);
+                if (ordinal >= 0) {
+                    known[knownCount++] = ordinal;
+                } else {
+                    missing.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+            Arrays.sort(known, 0, knownCount);
+            if (category.isDense()) {
+                bits = new long[knownCount == 0 ? 0 : (known[knownCount - 1] >> 6) + 1];
+                for (int i = 0; i < knownCount; i++) {
+                    bits[known[i] >> 6] |= 1L << known[i];
+                }
+                ordinals = null;
+            } else {
+                bits = null;
+                ordinals = Arrays.copyOf(known, knownCount);
+            }
+            unknown = missing.toArray(new String[0]);
+        }
+
+        boolean contains(String name) {
+            int ordinal = dictionary.ordinal(name);
+            if (ordinal < 0) {
+                return containsIgnoreCase(unknown, name);
+            }
+            if (bits != null) {
+                int word = ordinal >> 6;
+                return word < bits.length && (bits[word] & 1L << ordinal) != 0;
+            }
+            return Arrays.binarySearch(ordinals, ordinal) >= 0;
+        }
+    }
+
+    private PreferenceSet(PreferenceCategory category, String[] names) {
+        this.category = category;
+        this.names = names;
+    }
+
+    public static PreferenceSet empty(PreferenceCategory category) {
+        return new PreferenceSet(category, new String[0]);
+    }
+
+    /**
+     * @return the names as a set, in the given order; blanks and repeats are dropped
+     */
+    public static PreferenceSet of(PreferenceCategory category, Collection<String> names) {
+        List<String> distinct = new ArrayList<>(names.size());
+        Set<String> keys = new HashSet<>();
+        for (String name : names) {
+            add(distinct, keys, name);
+        }
+        return new PreferenceSet(category, distinct.toArray(new String[0]));
+    }
+
+    /**
+     * Parses a stored comma-separated selection; null or blank gives the empty set.
+     */
+    public static PreferenceSet decode(PreferenceCategory category, String stored) {
+        List<String> distinct = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        if (stored != null) {
+            int start = 0;
+            while (start <= stored.length()) {
+                int comma = stored.indexOf(',', start);
+                int end = comma < 0 ? stored.length() : comma;
+                add(distinct, keys, stored.substring(start, end));
+                start = end + 1;
+            }
+        }
+        return new PreferenceSet(category, distinct.toArray(new String[0]));
+    }
+
+    private static void add(List<String> distinct, Set<String> keys, String name) {
+        if (name != null && !name.trim().isEmpty() && keys.add(key(name))) {
+            distinct.add(name);
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the names joined with commas, in selection order
+     */
+    public String encode() {
+        return String.join(",", names);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        CatalogSnapshot snapshot = Catalog.loadedSnapshot();
+        if (snapshot == null) {
+            return containsIgnoreCase(names, (String) o); // no catalog to encode against (yet)
+        }
+        NameDictionary dictionary = category.dictionary(snapshot);
+        Encoding current = encoding;
+        if (current == null || current.dictionary != dictionary) {
+            current = new Encoding(category, dictionary, names);
+            encoding = current;
+        }
+        return current.contains((String) o);
+    }
+
+    private static boolean containsIgnoreCase(String[] names, String name) {
+        for (String candidate : names) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof PreferenceSet) {
+            PreferenceSet other = (PreferenceSet) o;
+            if (other.names.length != names.length) {
+                return false;
+            }
+            Set<String> keys = new HashSet<>();
+            for (String name : names) {
+                keys.add(key(name));
+            }
+            for (String name : other.names) {
+                if (!keys.contains(key(name))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (String name : names) {
+            hash += key(name).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < names.length;
+            }
+
+            @Override
+            public String next() {
+                if (next >= names.length) {
+                    throw new NoSuchElementException();
+                }
+                return names[next++];
+            }
+        };
+    }
+}
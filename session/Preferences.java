@@ -0,0 +1,56 @@
+package FoodFinder.session;
+
+import FoodFinder.domain.UserProfile;
+import java.util.Collection;
+
+/**
+ * An immutable snapshot of a user's saved wizard selections, decoded once from the
+ * comma-separated strings stored on the UserProfile into PreferenceSets.
+ */
+public final class Preferences {
+    public static final Preferences NONE = new Preferences(
+            PreferenceSet.empty(PreferenceCategory.CUISINES), PreferenceSet.empty(PreferenceCategory.MEAL_TYPES),
+            PreferenceSet.empty(PreferenceCategory.RESTRICTIONS), PreferenceSet.empty(PreferenceCategory.FOOD_ITEMS));
+
+    private final PreferenceSet cuisines;
+    private final PreferenceSet mealTypes;
+    private final PreferenceSet restrictions;
+    private final PreferenceSet foodItems;
+
+    private Preferences(PreferenceSet cuisines, PreferenceSet mealTypes, PreferenceSet restrictions,
+                        PreferenceSet foodItems) {
+        this.cuisines = cuisines;
+        this.mealTypes = mealTypes;
+        this.restrictions = restrictions;
+        this.foodItems = foodItems;
+    }
+
+    public Preferences(Collection<String> cuisines, Collection<String> mealTypes, Collection<String> restrictions,
+                       Collection<String> foodItems) {
+        this(PreferenceSet.of(PreferenceCategory.CUISINES, cuisines), PreferenceSet.of(PreferenceCategory.MEAL_TYPES, mealTypes),
+                PreferenceSet.of(PreferenceCategory.RESTRICTIONS, restrictions), PreferenceSet.of(PreferenceCategory.FOOD_ITEMS, foodItems));
+    }
+
+    public static Preferences fromProfile(UserProfile user) {
+        return new Preferences(
+                PreferenceSet.decode(PreferenceCategory.CUISINES, user.getSelectedCuisines()),
+                PreferenceSet.decode(PreferenceCategory.MEAL_TYPES, user.getSelectedMealTypes()),
+                PreferenceSet.decode(PreferenceCategory.RESTRICTIONS, user.getSelectedRestrictions()),
+                PreferenceSet.decode(PreferenceCategory.FOOD_ITEMS, user.getSelectedFoodItems()));
+    }
+
+    /**
+     * Writes the selections back onto the profile in its stored (comma-separated) form.
+     */
+    public void applyTo(UserProfile user) {
+        user.setSelectedCuisines(cuisines.encode());
+        user.setSelectedMealTypes(mealTypes.encode());
+        user.setSelectedRestrictions(restrictions.encode());
+        user.setSelectedFoodItems(foodItems.encode());
+    }
+
+    public PreferenceSet getCuisines() { return cuisines; }
+    public PreferenceSet getMealTypes() { return mealTypes; }
+    public PreferenceSet getRestrictions() { return restrictions; }
+    public PreferenceSet getFoodItems() { return foodItems; }
+}
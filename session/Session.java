@@ -0,0 +1,87 @@
+package FoodFinder.session;
+
+import FoodFinder.domain.UserProfile;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One logged-in user's state: the profile, the parsed preferences and a small cache of
+ * query results. Reads never lock; preferences are replaced as a whole.
+ */
+public class Session {
+    private static final int RESULT_CACHE_LIMIT = 16;
+
+    private final String token;
+    private final UserProfile user;
+    private final long createdMillis;
+    private volatile long lastAccessMillis;
+    private volatile Preferences preferences;
+    private final Map<Object, Object> results = new ConcurrentHashMap<>();
+
+    Session(String token, UserProfile user, long nowMillis) {
+        this.token = token;
+        this.user = user;
+        this.createdMillis = nowMillis;
+        this.lastAccessMillis = nowMillis;
+        this.preferences = Preferences.fromProfile(user);
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public UserProfile getUser() {
+        return user;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    // Only moves the timestamp when it is at least a second old, so that concurrent readers of
+    // a busy session do not all write the same field.
+    void touch(long nowMillis) {
+        if (nowMillis - lastAccessMillis >= 1000) {
+            lastAccessMillis = nowMillis;
+        }
+    }
+
+    public Preferences getPreferences() {
+        return preferences;
+    }
+
+    /**
+     * Replaces the preferences and copies them onto the profile, ready to be saved.
+     */
+    public void setPreferences(Preferences preferences) {
+        this.preferences = preferences;
+        preferences.applyTo(user);
+    }
+
+    /**
+     * @return the result cached under the key, or null. Keys should include whatever the result
+     *         depends on (e.g. the catalog snapshot it was computed from).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getCachedResult(Object key) {
+        return (T) results.get(key);
+    }
+
+    /**
+     * Caches a result for this session; the cache is emptied once it holds too many.
+     */
+    public void cacheResult(Object key, Object value) {
+        if (results.size() >= RESULT_CACHE_LIMIT) {
+            results.clear();
+        }
+        results.put(key, value);
+    }
+
+    public void clearCachedResults() {
+        results.clear();
+    }
+}
@@ -0,0 +1,118 @@
+package FoodFinder.session;
+
+import FoodFinder.domain.UserProfile;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent store of sessions by token.
+ *
+ * Lookups are a ConcurrentHashMap read plus an occasional timestamp write, so any number of
+ * threads can resolve tokens without locking. Sessions expire after idleTimeoutMillis without a
+ * lookup and are removed lazily; once maxSessions is reached, creating a session first drops
+ * the expired ones and then, if still full, the least recently used.
+ */
+public class SessionRegistry {
+    private static final SessionRegistry SHARED = new SessionRegistry(
+            Long.getLong("foodfinder.session.idleMs", 30 * 60 * 1000L),
+            Integer.getInteger("foodfinder.session.max", 10_000));
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTimeoutMillis;
+    private final int maxSessions;
+
+    public SessionRegistry(long idleTimeoutMillis, int maxSessions) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * @return the registry shared by the process, configured by -Dfoodfinder.session.idleMs
+     *         (default 30 minutes) and -Dfoodfinder.session.max (default 10000)
+     */
+    public static SessionRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Starts a session for the user under a new random token.
+     */
+    public Session create(UserProfile user) {
+        long now = System.currentTimeMillis();
+        if (sessions.size() >= maxSessions) {
+            makeRoom();
+        }
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), user, now);
+        sessions.put(session.getToken(), session);
+        return session;
+    }
+
+    /**
+     * @return the live session for the token, or null if there is none or it has expired
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (isExpired(session, now)) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    public void remove(String token) {
+        sessions.remove(token);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes every expired session.
+     *
+     * @return the number removed
+     */
+    public int sweepExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Iterator<Session> it = sessions.values().iterator(); it.hasNext(); ) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.getLastAccessMillis() > idleTimeoutMillis;
+    }
+
+    private void makeRoom() {
+        if (sweepExpired() > 0 && sessions.size() < maxSessions) {
+            return;
+        }
+        Session oldest = null;
+        for (Session session : sessions.values()) {
+            if (oldest == null || session.getLastAccessMillis() < oldest.getLastAccessMillis()) {
+                oldest = session;
+            }
+        }
+        if (oldest != null) {
+            sessions.remove(oldest.getToken(), oldest);
+        }
+    }
+}
@@ -1,15 +1,42 @@
 package FoodFinder.session;
 
+import FoodFinder.dao.PreferenceStore;
 import FoodFinder.domain.UserProfile;
 
+/**
+ * The desktop client's logged-in session, registered in the shared SessionRegistry.
+ *
+ * The desktop keeps its own reference, so the session stays usable however long the window
+ * sits idle; other deployments look sessions up by token in the registry instead.
+ */
 public class UserSession {
-    private static UserProfile currentUser;
+    private static volatile Session current;
 
+    /**
+     * Logs the given user in (or everyone out, for null). The profile is taken to hold the
+     * user's stored preferences; the previous user's unsaved preferences are written out.
+     */
     public static void setCurrentUser(UserProfile user) {
-        currentUser = user;
+        Session previous = current;
+        if (previous != null) {
+            SessionRegistry.shared().remove(previous.getToken());
+            PreferenceStore.shared().flush();
+        }
+        if (user != null) {
+            PreferenceStore.shared().markStored(user);
+        }
+        current = user == null ? null : SessionRegistry.shared().create(user);
     }
 
     public static UserProfile getCurrentUser() {
-        return currentUser;
+        Session session = current;
+        return session == null ? null : session.getUser();
+    }
+
+    /**
+     * @return the desktop session, or null if nobody is logged in
+     */
+    public static Session current() {
+        return current;
     }
 }
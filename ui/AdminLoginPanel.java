@@ -1,7 +1,6 @@
 package FoodFinder.ui;
 
-import FoodFinder.dao.AdminProfileDAO;
-import FoodFinder.domain.AdminProfile;
+import FoodFinder.dao.AsyncDAO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
@@ -120,17 +119,29 @@ public class AdminLoginPanel extends JPanel {
                 );
                 return;
             }
-            AdminProfile admin = AdminProfileDAO.authenticate(username, password);
-            if (admin != null) {
-                parentFrame.showPanel("adminPage");
-            } else {
+            // Authenticate off the EDT; the button stays disabled until the answer arrives.
+            loginButton.setEnabled(false);
+            SwingAsync.onEdt(AsyncDAO.authenticateAdmin(username, password), admin -> {
+                loginButton.setEnabled(true);
+                if (admin != null) {
+                    parentFrame.showPanel("adminPage");
+                } else {
+                    JOptionPane.showMessageDialog(
+                            AdminLoginPanel.this,
+                            "Invalid administrator credentials.",
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }, error -> {
+                loginButton.setEnabled(true);
                 JOptionPane.showMessageDialog(
                         AdminLoginPanel.this,
-                        "Invalid administrator credentials.",
+                        "Error contacting the database: " + error.getMessage(),
                         "Error",
                         JOptionPane.ERROR_MESSAGE
                 );
-            }
+            });
         });
 
         // Action: Go back to the user login panel.
@@ -1,27 +1,19 @@
 package FoodFinder.ui;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URLEncoder;
-import java.net.URL;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.jxmapviewer.viewer.GeoPosition;
-import FoodFinder.dao.MenuDAO;
-import FoodFinder.dao.RestaurantDAO;
+import FoodFinder.dao.AsyncDAO;
+import FoodFinder.dao.RecipeWriteResult;
 import FoodFinder.domain.Menu;
 import FoodFinder.domain.MenuItem;
 import FoodFinder.domain.Restaurant;
+import FoodFinder.geo.GeocodingService;
 import FoodFinder.map.MapUtils;
-import FoodFinder.map.RestaurantWaypoint;
-import FoodFinder.map.RestaurantWaypointRenderer;
+import FoodFinder.map.RestaurantWaypointLayer;
 import org.jxmapviewer.JXMapViewer;
 import org.jxmapviewer.OSMTileFactoryInfo;
 import org.jxmapviewer.viewer.DefaultTileFactory;
 import org.jxmapviewer.viewer.GeoPosition;
 import org.jxmapviewer.painter.Painter;
-import org.jxmapviewer.viewer.WaypointPainter;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -31,6 +23,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class AdminPagePanel extends JPanel {
     // -------------------- UI Constants --------------------
@@ -47,9 +41,12 @@ public class AdminPagePanel extends JPanel {
     private Menu selectedMenu;
     private MenuItem selectedItem;
     private JXMapViewer resultsMapViewer;
+    private RestaurantWaypointLayer resultsWaypoints;
     private JList<Restaurant> resultsList;
+    private JTextField searchField;
     private List<Restaurant> currentValidRestaurants = new ArrayList<>();
-    private List<Restaurant> allRestaurants;
+    private List<Restaurant> allRestaurants = new ArrayList<>();
+    private int busyTasks = 0;
 
     public AdminPagePanel() {
         setLayout(new BorderLayout());
@@ -60,12 +57,32 @@ public class AdminPagePanel extends JPanel {
         cardPanel = new JPanel(cardLayout);
         cardPanel.setBackground(white);
 
-        // Load restaurants from DB.
-        allRestaurants = RestaurantDAO.getAllRestaurants();
-
         // Add the results panel (other panels are added dynamically).
         cardPanel.add(createResultsPanel(), "results");
         add(cardPanel, BorderLayout.CENTER);
+
+        // Load restaurants from DB in the background.
+        runInBackground(AsyncDAO.getAllRestaurants(), restaurants -> {
+            allRestaurants = restaurants;
+            updateResultsPanel();
+        }, "Load Error", "Error loading restaurants: ");
+    }
+
+    /**
+     * Runs a database task off the EDT, showing a wait cursor until it finishes. onSuccess
+     * runs on the EDT; a failure is reported in an error dialog.
+     */
+    private <T> void runInBackground(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                     String errorTitle, String errorPrefix) {
+        if (busyTasks++ == 0) {
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+        SwingAsync.onEdt(future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (--busyTasks == 0) {
+                setCursor(Cursor.getDefaultCursor());
+            }
+        })), onSuccess, error -> JOptionPane.showMessageDialog(this,
+                errorPrefix + error.getMessage(), errorTitle, JOptionPane.ERROR_MESSAGE));
     }
 
     // -------------------- Results Panel --------------------
@@ -75,7 +92,7 @@ public class AdminPagePanel extends JPanel {
         panel.setBorder(new EmptyBorder(20, 20, 20, 20));
 
         // Search field.
-        JTextField searchField = new JTextField();
+        searchField = new JTextField();
         searchField.setFont(optionFont);
         panel.add(searchField, BorderLayout.NORTH);
 
@@ -91,7 +108,6 @@ public class AdminPagePanel extends JPanel {
                     // If the same restaurant is clicked again (already selected), navigate to its menus.
                     if (selectedRestaurant != null && selectedRestaurant.equals(clicked)) {
                         updateMenusPanel(clicked);
-                        cardLayout.show(cardPanel, "menus");
                     } else {
                         // First click: select the restaurant.
                         selectedRestaurant = clicked;
@@ -133,18 +149,12 @@ public class AdminPagePanel extends JPanel {
                     "Confirm Delete",
                     JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
-                try {
-                    RestaurantDAO.deleteRestaurant(selected.id);
+                deleteRestButton.setEnabled(false);
+                runInBackground(AsyncDAO.deleteRestaurant(selected.id)
+                        .whenComplete((v, error) -> SwingUtilities.invokeLater(() -> deleteRestButton.setEnabled(true))), v -> {
+                    removeRestaurantRow(selected);
                     JOptionPane.showMessageDialog(AdminPagePanel.this, "Restaurant deleted successfully!");
-                    allRestaurants = RestaurantDAO.getAllRestaurants();
-                    updateResultsPanel();
-                    resultsMapViewer = MapUtils.createMapViewer(allRestaurants);
-                } catch (RuntimeException ex) {
-                    JOptionPane.showMessageDialog(AdminPagePanel.this,
-                            "Error deleting restaurant: " + ex.getMessage(),
-                            "Delete Error",
-                            JOptionPane.ERROR_MESSAGE);
-                }
+                }, "Delete Error", "Error deleting restaurant: ");
             }
         });
         buttonPanel.add(deleteRestButton);
@@ -154,10 +164,9 @@ public class AdminPagePanel extends JPanel {
         // Filter logic.
         searchField.getDocument().addDocumentListener(new DocumentListener() {
             private void filterList() {
-                String filter = searchField.getText().trim().toLowerCase();
                 DefaultListModel<Restaurant> filteredModel = new DefaultListModel<>();
                 for (Restaurant r : currentValidRestaurants) {
-                    if (r.name.toLowerCase().contains(filter)) {
+                    if (matchesSearch(r)) {
                         filteredModel.addElement(r);
                     }
                 }
@@ -176,24 +185,49 @@ public class AdminPagePanel extends JPanel {
         currentValidRestaurants = allRestaurants;
         DefaultListModel<Restaurant> listModel = new DefaultListModel<>();
         for (Restaurant r : currentValidRestaurants) {
-            listModel.addElement(r);
+            if (matchesSearch(r)) {
+                listModel.addElement(r);
+            }
         }
         resultsList.setModel(listModel);
 
         // Update map overlay.
-        Set<RestaurantWaypoint> waypoints = new HashSet<>();
-        for (Restaurant r : currentValidRestaurants) {
-            waypoints.add(new RestaurantWaypoint(r));
-        }
-        WaypointPainter<RestaurantWaypoint> painter = new WaypointPainter<>();
-        painter.setWaypoints(waypoints);
-        painter.setRenderer(new RestaurantWaypointRenderer());
-        resultsMapViewer.setOverlayPainter(painter);
+        resultsWaypoints = MapUtils.setRestaurantWaypoints(resultsMapViewer, currentValidRestaurants);
 
         cardPanel.revalidate();
         cardPanel.repaint();
     }
 
+    private boolean matchesSearch(Restaurant restaurant) {
+        String filter = searchField.getText().trim().toLowerCase();
+        return restaurant.name.toLowerCase().contains(filter);
+    }
+
+    /**
+     * Applies a newly inserted restaurant to the list and map in place instead of reloading them.
+     */
+    private void addRestaurantRow(Restaurant restaurant) {
+        allRestaurants.add(restaurant);
+        if (matchesSearch(restaurant)) {
+            ((DefaultListModel<Restaurant>) resultsList.getModel()).addElement(restaurant);
+        }
+        resultsWaypoints.add(restaurant);
+        resultsMapViewer.repaint();
+    }
+
+    /**
+     * Applies a deleted restaurant to the list and map in place instead of reloading them.
+     */
+    private void removeRestaurantRow(Restaurant restaurant) {
+        allRestaurants.remove(restaurant);
+        ((DefaultListModel<Restaurant>) resultsList.getModel()).removeElement(restaurant);
+        if (selectedRestaurant == restaurant) {
+            selectedRestaurant = null;
+        }
+        resultsWaypoints.remove(restaurant.id);
+        resultsMapViewer.repaint();
+    }
+
     // -------------------- Add Restaurant Dialog --------------------
     private void openAddRestaurantDialog() {
         // Create a new modal dialog.
@@ -244,71 +278,51 @@ public class AdminPagePanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "Please fill in all fields.", "Input Error", JOptionPane.WARNING_MESSAGE);
                 return;
             }
-            // Convert address to coordinates (stub implementation).
-            GeoPosition pos = geocodeAddress(address);
-            if(pos == null) {
-                JOptionPane.showMessageDialog(dialog, "Unable to geocode address.", "Geocode Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            double lat = pos.getLatitude();
-            double lon = pos.getLongitude();
-
-            // Create new Restaurant using your class constructor.
-            Restaurant newRest = new Restaurant(0, name, cuisine, price, rating, lat, lon);
-            try {
-                RestaurantDAO.addRestaurant(newRest);
-                JOptionPane.showMessageDialog(dialog, "Restaurant added successfully!");
-                // Refresh restaurant list.
-                allRestaurants = RestaurantDAO.getAllRestaurants();
-                updateResultsPanel();
-                resultsMapViewer = MapUtils.createMapViewer(allRestaurants);
-                dialog.dispose();
-            } catch (RuntimeException ex) {
-                JOptionPane.showMessageDialog(dialog, "Error adding restaurant: " + ex.getMessage(), "Add Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // Convert address to coordinates off the EDT; the dialog stays responsive meanwhile.
+            okButton.setEnabled(false);
+            dialog.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            SwingAsync.onEdt(GeocodingService.get().geocode(address), pos -> {
+                if (pos == null) {
+                    dialog.setCursor(Cursor.getDefaultCursor());
+                    okButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(dialog, "Unable to geocode address.", "Geocode Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                double lat = pos.getLatitude();
+                double lon = pos.getLongitude();
+
+                // Create new Restaurant using your class constructor.
+                Restaurant newRest = new Restaurant(0, name, cuisine, price, rating, lat, lon);
+                SwingAsync.onEdt(AsyncDAO.addRestaurant(newRest), id -> {
+                    newRest.id = id;
+                    addRestaurantRow(newRest);
+                    JOptionPane.showMessageDialog(dialog, "Restaurant added successfully!");
+                    dialog.dispose();
+                }, ex -> {
+                    dialog.setCursor(Cursor.getDefaultCursor());
+                    okButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(dialog, "Error adding restaurant: " + ex.getMessage(), "Add Error", JOptionPane.ERROR_MESSAGE);
+                });
+            }, ex -> {
+                dialog.setCursor(Cursor.getDefaultCursor());
+                okButton.setEnabled(true);
+                JOptionPane.showMessageDialog(dialog, "Error geocoding address: " + ex.getMessage(), "Geocode Error", JOptionPane.ERROR_MESSAGE);
+            });
         });
 
         cancelButton.addActionListener(ae -> dialog.dispose());
         dialog.setVisible(true);
     }
 
-    private GeoPosition geocodeAddress(String address) {
-        try {
-            // Build the URL for the Nominatim API with URL-encoded address.
-            String urlStr = "https://nominatim.openstreetmap.org/search?q="
-                    + URLEncoder.encode(address, "UTF-8")
-                    + "&format=json&limit=1";
-            URL url = new URL(urlStr);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            // Nominatim requires a valid User-Agent.
-            conn.setRequestProperty("User-Agent", "FoodFinderApp/1.0 (your-email@example.com)");
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"));
-            String inputLine;
-            StringBuilder response = new StringBuilder();
-            while((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
-            }
-            in.close();
-            // Parse the JSON response.
-            JSONArray results = new JSONArray(response.toString());
-            if (results.length() > 0) {
-                JSONObject firstResult = results.getJSONObject(0);
-                double lat = firstResult.getDouble("lat");
-                double lon = firstResult.getDouble("lon");
-                return new GeoPosition(lat, lon);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error geocoding address: " + e.getMessage(), "Geocode Error", JOptionPane.ERROR_MESSAGE);
-        }
-        return null;
-    }
-
     // -------------------- Menus Panel (with Add/Delete) --------------------
     private void updateMenusPanel(Restaurant restaurant) {
-        List<Menu> menus = MenuDAO.getMenusForRestaurant(restaurant.id);
+        runInBackground(AsyncDAO.getMenusForRestaurant(restaurant.id), menus -> {
+            buildMenusPanel(restaurant, menus);
+            cardLayout.show(cardPanel, "menus");
+        }, "Load Error", "Error loading menus: ");
+    }
 
+    private void buildMenusPanel(Restaurant restaurant, List<Menu> menus) {
         JPanel menusPanel = new JPanel(new BorderLayout(10, 10));
         menusPanel.setBackground(white);
         menusPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -327,7 +341,6 @@ public class AdminPagePanel extends JPanel {
             menuButton.addActionListener(e -> {
                 selectedMenu = menu;
                 updateItemsPanel(menu);
-                cardLayout.show(cardPanel, "items");
             });
             // Delete menu button.
             JButton deleteMenuButton = new JButton("Delete");
@@ -335,13 +348,8 @@ public class AdminPagePanel extends JPanel {
             deleteMenuButton.addActionListener(e -> {
                 int confirm = JOptionPane.showConfirmDialog(this, "Delete menu: " + menu.type + "?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
-                    try {
-                        MenuDAO.deleteMenu(menu.id);
-                        updateMenusPanel(restaurant);
-                        cardLayout.show(cardPanel, "menus");
-                    } catch (RuntimeException ex) {
-                        JOptionPane.showMessageDialog(this, "Error deleting menu: " + ex.getMessage(), "Delete Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    runInBackground(AsyncDAO.deleteMenu(menu.id), v -> updateMenusPanel(restaurant),
+                            "Delete Error", "Error deleting menu: ");
                 }
             });
             menuRow.add(menuButton);
@@ -362,13 +370,9 @@ public class AdminPagePanel extends JPanel {
                     String normalizedType = Arrays.stream(allowedTypes)
                             .filter(allowed -> allowed.equalsIgnoreCase(newMenuType.trim()))
                             .findFirst().orElse(newMenuType.trim());
-                    try {
-                        MenuDAO.addMenu(selectedRestaurant.id, normalizedType);
-                        updateMenusPanel(selectedRestaurant);
-                        cardLayout.show(cardPanel, "menus");
-                    } catch (RuntimeException ex) {
-                        JOptionPane.showMessageDialog(this, "Error adding menu: " + ex.getMessage(), "Add Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    Restaurant target = selectedRestaurant;
+                    runInBackground(AsyncDAO.addMenu(target.id, normalizedType), v -> updateMenusPanel(target),
+                            "Add Error", "Error adding menu: ");
                 }
             }
         });
@@ -393,9 +397,14 @@ public class AdminPagePanel extends JPanel {
 
     // -------------------- Items Panel (with Add/Delete) --------------------
     private void updateItemsPanel(Menu menu) {
-        List<MenuItem> items = MenuDAO.getMenuItems(menu.id);
-        menu.items = items;
+        runInBackground(AsyncDAO.getMenuItems(menu.id), items -> {
+            menu.items = items;
+            buildItemsPanel(menu, items);
+            cardLayout.show(cardPanel, "items");
+        }, "Load Error", "Error loading menu items: ");
+    }
 
+    private void buildItemsPanel(Menu menu, List<MenuItem> items) {
         JPanel itemsPanel = new JPanel(new BorderLayout(10, 10));
         itemsPanel.setBackground(white);
         itemsPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -422,13 +431,8 @@ public class AdminPagePanel extends JPanel {
             deleteItemButton.addActionListener(e -> {
                 int confirm = JOptionPane.showConfirmDialog(this, "Delete item: " + item.name + "?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
-                    try {
-                        MenuDAO.deleteItem(menu.id, item.name);
-                        updateItemsPanel(menu);
-                        cardLayout.show(cardPanel, "items");
-                    } catch (RuntimeException ex) {
-                        JOptionPane.showMessageDialog(this, "Error deleting item: " + ex.getMessage(), "Delete Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    runInBackground(AsyncDAO.deleteItem(menu.id, item.name), v -> updateItemsPanel(menu),
+                            "Delete Error", "Error deleting item: ");
                 }
             });
             itemRow.add(itemButton);
@@ -442,13 +446,10 @@ public class AdminPagePanel extends JPanel {
             String newItemName = JOptionPane.showInputDialog(this, "Enter new item name:");
             if (newItemName != null && !newItemName.trim().isEmpty()) {
                 String newRecipe = JOptionPane.showInputDialog(this, "Enter recipe for the new item (comma-separated ingredients):");
-                try {
-                    MenuDAO.addItem(menu.id, newItemName, newRecipe);
+                runInBackground(AsyncDAO.addItem(menu.id, newItemName, newRecipe), result -> {
+                    warnUnknownIngredients(result);
                     updateItemsPanel(menu);
-                    cardLayout.show(cardPanel, "items");
-                } catch (RuntimeException ex) {
-                    JOptionPane.showMessageDialog(this, "Error adding item: " + ex.getMessage(), "Add Error", JOptionPane.ERROR_MESSAGE);
-                }
+                }, "Add Error", "Error adding item: ");
             }
         });
         itemListPanel.add(addItemButton);
@@ -505,27 +506,25 @@ public class AdminPagePanel extends JPanel {
         deleteRecipeButton.addActionListener(e -> {
             int confirm = JOptionPane.showConfirmDialog(this, "Delete recipe for: " + item.name + "?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
-                try {
-                    MenuDAO.deleteRecipe(selectedMenu.id, item.name);
+                runInBackground(AsyncDAO.deleteRecipe(selectedMenu.id, item.name), v -> {
                     recipeArea.setText("No recipe details available.");
                     updateRecipePanel(item);
                     cardLayout.show(cardPanel, "recipe");
-                } catch (RuntimeException ex) {
-                    JOptionPane.showMessageDialog(this, "Error deleting recipe: " + ex.getMessage(), "Delete Error", JOptionPane.ERROR_MESSAGE);
-                }
+                }, "Delete Error", "Error deleting recipe: ");
             }
-            cardPanel.revalidate();
-            cardPanel.repaint();
         });
 
         JButton updateRecipeButton = new JButton("Update Recipe");
         updateRecipeButton.setFont(optionFont);
         updateRecipeButton.addActionListener(e -> {
             String updatedRecipe = recipeArea.getText();
-            try {
-                MenuDAO.updateRecipe(selectedMenu.id, item.name, updatedRecipe);
+            int menuId = selectedMenu.id;
+            updateRecipeButton.setEnabled(false);
+            CompletableFuture<RecipeWriteResult> write = AsyncDAO.updateRecipe(menuId, item.name, updatedRecipe);
+            runInBackground(write
+                    .whenComplete((v, error) -> SwingUtilities.invokeLater(() -> updateRecipeButton.setEnabled(true)))
+                    .thenCompose(v -> AsyncDAO.getMenuItems(menuId)), updatedItems -> {
                 // Refresh in-memory item data.
-                List<MenuItem> updatedItems = MenuDAO.getMenuItems(selectedMenu.id);
                 for (MenuItem mi : updatedItems) {
                     if (mi.name.equals(item.name)) {
                         item.recipe = mi.recipe;
@@ -534,11 +533,10 @@ public class AdminPagePanel extends JPanel {
                     }
                 }
                 JOptionPane.showMessageDialog(this, "Recipe updated successfully.");
+                warnUnknownIngredients(write.join());
                 updateRecipePanel(item);
                 cardLayout.show(cardPanel, "recipe");
-            } catch (RuntimeException ex) {
-                JOptionPane.showMessageDialog(this, "Error updating recipe: " + ex.getMessage(), "Update Error", JOptionPane.ERROR_MESSAGE);
-            }
+            }, "Update Error", "Error updating recipe: ");
         });
 
         JButton backButton = new JButton("Back");
@@ -555,7 +553,21 @@ public class AdminPagePanel extends JPanel {
         cardPanel.repaint();
     }
 
-    // -------------------- Utility Method --------------------
+    // -------------------- Utility Methods --------------------
+
+    /**
+     * Tells the admin which recipe ingredients were skipped because they are not in the Allergen table.
+     */
+    private void warnUnknownIngredients(RecipeWriteResult result) {
+        if (result.hasUnknownIngredients()) {
+            JOptionPane.showMessageDialog(this,
+                    "These ingredients are not in the Allergen table and were not added:\n"
+                            + String.join(", ", result.getUnknownIngredients()),
+                    "Unknown Ingredients",
+                    JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
     private void styleButton(JButton button) {
         button.setFont(optionFont);
         button.setBackground(accentColor);
@@ -1,18 +1,21 @@
 package FoodFinder.ui;
 
-import FoodFinder.dao.MenuDAO;
-import FoodFinder.dao.RestaurantDAO;
-import FoodFinder.dao.UserProfileDAO;
+import FoodFinder.catalog.Catalog;
+import FoodFinder.catalog.CatalogSnapshot;
+import FoodFinder.catalog.KeywordMatcher;
+import FoodFinder.dao.AsyncDAO;
+import FoodFinder.dao.PreferenceStore;
 import FoodFinder.domain.Menu;
 import FoodFinder.domain.MenuItem;
 import FoodFinder.domain.Restaurant;
-import FoodFinder.domain.UserProfile;
 import FoodFinder.map.MapUtils;
 import FoodFinder.map.RestaurantWaypoint;
-import FoodFinder.map.RestaurantWaypointRenderer;
+import FoodFinder.map.RestaurantWaypointLayer;
+import FoodFinder.session.PreferenceSet;
+import FoodFinder.session.Preferences;
+import FoodFinder.session.Session;
 import FoodFinder.session.UserSession;
 import org.jxmapviewer.JXMapViewer;
-import org.jxmapviewer.viewer.WaypointPainter;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -22,8 +25,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class FoodFinderFrame extends JFrame {
     // -------------------- UI Constants --------------------
@@ -40,6 +43,9 @@ public class FoodFinderFrame extends JFrame {
     private JLabel[] progressLabels;
     private int currentStep = 0;
 
+    // The logged-in user's session (null if nobody is logged in); saved preferences come from it.
+    private final Session session = UserSession.current();
+
     // User selections (stored as lists for the session)
     List<String> selectedCuisines = new ArrayList<>();
     List<String> selectedMealTypes = new ArrayList<>();
@@ -52,10 +58,18 @@ public class FoodFinderFrame extends JFrame {
     private MenuItem selectedItem;
 
     // Data loaded from the database
-    private List<Restaurant> allRestaurants;
+    private List<Restaurant> allRestaurants = new ArrayList<>();
+
+    // Background loading: the step-level load in flight (superseded loads are cancelled)
+    // and a busy indicator shown while any load is running.
+    private CompletableFuture<?> pendingTask;
+    private JProgressBar loadingBar;
+    private int activeLoads = 0;
 
     // Map viewer and related state
     private JList<Restaurant> resultsList;
+    private JTextField resultsSearchField;
+    private JCheckBox viewportOnlyCheckBox;
     private Map<Restaurant, String> restaurantMatchingItems = new HashMap<>();
 
     // References to dynamically updated panels/buttons
@@ -64,6 +78,7 @@ public class FoodFinderFrame extends JFrame {
     private PagedSearchPanel mealTypeOptionsPanel;
     private JPanel mealTypePanel;
     private JXMapViewer resultsMapViewer;
+    private RestaurantWaypointLayer resultsWaypoints;
 
     /**
      * Constructor creates a placeholder UI.
@@ -77,9 +92,6 @@ public class FoodFinderFrame extends JFrame {
         setLayout(new BorderLayout());
         getContentPane().setBackground(white);
 
-        // Load static data from the database.
-        allRestaurants = RestaurantDAO.getAllRestaurants();
-
         // Header (always visible)
         JPanel header = new JPanel(new BorderLayout());
         header.setBackground(white);
@@ -88,6 +100,11 @@ public class FoodFinderFrame extends JFrame {
         titleLabel.setFont(headerFont);
         titleLabel.setForeground(accentColor);
         header.add(titleLabel, BorderLayout.NORTH);
+        loadingBar = new JProgressBar();
+        loadingBar.setIndeterminate(true);
+        loadingBar.setForeground(accentColor);
+        loadingBar.setVisible(false);
+        header.add(loadingBar, BorderLayout.SOUTH);
         add(header, BorderLayout.NORTH);
 
         // Create an initially empty card panel with a placeholder.
@@ -114,6 +131,7 @@ public class FoodFinderFrame extends JFrame {
                 @Override
                 public void mouseClicked(MouseEvent e) {
                     if (step < currentStep) {
+                        cancelPendingTask();
                         currentStep = step;
                         saveUserPreferences();  // Save before switching panels
                         cardLayout.show(cardPanel, getCardName(currentStep));
@@ -125,8 +143,16 @@ public class FoodFinderFrame extends JFrame {
         }
         add(progressPanel, BorderLayout.SOUTH);
 
+        // Load the in-memory catalog off the EDT so the first search steps answer from memory.
+        track(AsyncDAO.getCatalogRestaurants()).thenAccept(restaurants -> SwingUtilities.invokeLater(() -> {
+            allRestaurants = restaurants;
+            if (resultsMapViewer != null && currentValidRestaurants.isEmpty()) {
+                showWaypoints(allRestaurants);
+            }
+        }));
+
         // If a user is already logged in, immediately load the panels.
-        if (UserSession.getCurrentUser() != null) {
+        if (session != null) {
             initPanels();
         }
     }
@@ -177,17 +203,67 @@ public class FoodFinderFrame extends JFrame {
 
     /**
      * Saves the current selections into the user profile in the database.
+     * The write is deferred and batched by the PreferenceStore; a failure is only logged.
      */
     private void saveUserPreferences() {
-        if (UserSession.getCurrentUser() != null) {
-            UserSession.getCurrentUser().setSelectedCuisines(String.join(",", selectedCuisines));
-            UserSession.getCurrentUser().setSelectedMealTypes(String.join(",", selectedMealTypes));
-            UserSession.getCurrentUser().setSelectedRestrictions(String.join(",", selectedRestrictions));
-            UserSession.getCurrentUser().setSelectedFoodItems(String.join(",", selectedFoodItems));
-            UserProfileDAO.updatePreferences(UserSession.getCurrentUser());
+        if (session != null) {
+            session.setPreferences(new Preferences(selectedCuisines, selectedMealTypes,
+                    selectedRestrictions, selectedFoodItems));
+            PreferenceStore.shared().update(session.getUser());
+        }
+    }
+
+    // -------------------- Background Loading --------------------
+
+    /**
+     * Shows the loading bar until the future completes (or is cancelled).
+     */
+    private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        activeLoads++;
+        loadingBar.setVisible(true);
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (--activeLoads == 0) {
+                loadingBar.setVisible(false);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Runs a load for the current step. Any earlier step load still in flight is cancelled,
+     * and onSuccess only runs if this load has not itself been superseded by then.
+     */
+    private <T> void loadForStep(CompletableFuture<T> future, Consumer<? super T> onSuccess) {
+        cancelPendingTask();
+        pendingTask = future;
+        SwingAsync.onEdt(track(future), value -> {
+            if (pendingTask == future) {
+                pendingTask = null;
+                onSuccess.accept(value);
+            }
+        }, error -> {
+            if (pendingTask == future) {
+                pendingTask = null;
+                showLoadError(error);
+            }
+        });
+    }
+
+    /**
+     * Discards the result of the step load in flight, if any. The query itself is left to
+     * finish on its worker thread.
+     */
+    private void cancelPendingTask() {
+        if (pendingTask != null) {
+            pendingTask.cancel(false);
+            pendingTask = null;
         }
     }
 
+    private void showLoadError(Throwable error) {
+        JOptionPane.showMessageDialog(this, "Error loading data: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
     // -------------------- Panel Creation Methods --------------------
 
     private JPanel createCuisinePanel() {
@@ -200,23 +276,24 @@ public class FoodFinderFrame extends JFrame {
         questionLabel.setForeground(darkGray);
         panel.add(questionLabel, BorderLayout.NORTH);
 
-        List<String> cuisineList = RestaurantDAO.getDistinctCuisines();
-        if (cuisineList.isEmpty()) {
-            cuisineList = Arrays.asList("Italian", "Japanese", "Mexican", "American");
-        }
-        String[] cuisines = cuisineList.toArray(new String[0]);
-        PagedSearchPanel optionsPanel = new PagedSearchPanel(cuisines);
-
-        // Pre-select saved cuisines if available.
-        if (UserSession.getCurrentUser() != null) {
-            String saved = UserSession.getCurrentUser().getSelectedCuisines();
-            if (saved != null && !saved.trim().isEmpty()) {
-                List<String> savedList = Arrays.asList(saved.split(","));
-                optionsPanel.setSelectedOptions(savedList);
-                selectedCuisines.clear();
-                selectedCuisines.addAll(savedList);
+        // Options are filled in once the cuisines have loaded.
+        PagedSearchPanel optionsPanel = new PagedSearchPanel(new String[0]);
+        SwingAsync.onEdt(track(AsyncDAO.getDistinctCuisines()), cuisineList -> {
+            if (cuisineList.isEmpty()) {
+                cuisineList = Arrays.asList("Italian", "Japanese", "Mexican", "American");
             }
-        }
+            optionsPanel.updateOptions(cuisineList.toArray(new String[0]));
+
+            // Pre-select saved cuisines if available.
+            if (session != null) {
+                PreferenceSet saved = session.getPreferences().getCuisines();
+                if (!saved.isEmpty()) {
+                    optionsPanel.setSelectedOptions(saved);
+                    selectedCuisines.clear();
+                    selectedCuisines.addAll(saved);
+                }
+            }
+        }, this::showLoadError);
 
         panel.add(optionsPanel, BorderLayout.CENTER);
 
@@ -238,10 +315,10 @@ public class FoodFinderFrame extends JFrame {
                 selectedCuisines.clear();
                 selectedCuisines.addAll(sel);
                 saveUserPreferences();  // Save after cuisine selection.
-                updateMealTypePanel();
                 currentStep++;
                 cardLayout.show(cardPanel, getCardName(currentStep));
                 updateProgressLabels();
+                updateMealTypePanel();
             }
         });
         buttonPanel.add(backButton);
@@ -260,20 +337,8 @@ public class FoodFinderFrame extends JFrame {
         questionLabel.setForeground(darkGray);
         panel.add(questionLabel, BorderLayout.NORTH);
 
-        List<String> typeList = MenuDAO.getMealTypesForCuisines(selectedCuisines);
-        String[] mealTypes = typeList.toArray(new String[0]);
-        mealTypeOptionsPanel = new PagedSearchPanel(mealTypes);
-
-        // Pre-select saved meal types if available.
-        if (UserSession.getCurrentUser() != null) {
-            String saved = UserSession.getCurrentUser().getSelectedMealTypes();
-            if (saved != null && !saved.trim().isEmpty()) {
-                List<String> savedList = Arrays.asList(saved.split(","));
-                mealTypeOptionsPanel.setSelectedOptions(savedList);
-                selectedMealTypes.clear();
-                selectedMealTypes.addAll(savedList);
-            }
-        }
+        // Options depend on the chosen cuisines and are loaded by updateMealTypePanel().
+        mealTypeOptionsPanel = new PagedSearchPanel(new String[0]);
 
         panel.add(mealTypeOptionsPanel, BorderLayout.CENTER);
 
@@ -283,12 +348,7 @@ public class FoodFinderFrame extends JFrame {
         JButton continueButton = new JButton("Continue");
         styleButton(backButton);
         styleButton(continueButton);
-        backButton.addActionListener(e -> {
-            saveUserPreferences();
-            currentStep--;
-            cardLayout.show(cardPanel, getCardName(currentStep));
-            updateProgressLabels();
-        });
+        backButton.addActionListener(e -> navigateBack());
         continueButton.addActionListener(e -> {
             List<String> sel = mealTypeOptionsPanel.getSelectedOptions();
             if (sel.isEmpty()) {
@@ -309,20 +369,21 @@ public class FoodFinderFrame extends JFrame {
     }
 
     private void updateMealTypePanel() {
-        List<String> typeList = MenuDAO.getMealTypesForCuisines(selectedCuisines);
-        String[] mealTypes = typeList.toArray(new String[0]);
-        if (mealTypeOptionsPanel != null) {
-            mealTypeOptionsPanel.updateOptions(mealTypes);
-            if (UserSession.getCurrentUser() != null) {
-                String saved = UserSession.getCurrentUser().getSelectedMealTypes();
-                if (saved != null && !saved.trim().isEmpty()) {
-                    List<String> savedList = Arrays.asList(saved.split(","));
-                    mealTypeOptionsPanel.setSelectedOptions(savedList);
+        if (mealTypeOptionsPanel == null) {
+            return;
+        }
+        mealTypeOptionsPanel.updateOptions(new String[0]);
+        loadForStep(AsyncDAO.getMealTypesForCuisines(new ArrayList<>(selectedCuisines)), typeList -> {
+            mealTypeOptionsPanel.updateOptions(typeList.toArray(new String[0]));
+            if (session != null) {
+                PreferenceSet saved = session.getPreferences().getMealTypes();
+                if (!saved.isEmpty()) {
+                    mealTypeOptionsPanel.setSelectedOptions(saved);
                     selectedMealTypes.clear();
-                    selectedMealTypes.addAll(savedList);
+                    selectedMealTypes.addAll(saved);
                 }
             }
-        }
+        });
     }
 
     private JPanel createRestrictionsPanel() {
@@ -335,20 +396,21 @@ public class FoodFinderFrame extends JFrame {
         questionLabel.setForeground(darkGray);
         panel.add(questionLabel, BorderLayout.NORTH);
 
-        List<String> restrictionList = MenuDAO.getAllergens();
-        String[] restrictions = restrictionList.toArray(new String[0]);
-        PagedSearchPanel optionsPanel = new PagedSearchPanel(restrictions);
-
-        // Pre-select saved restrictions if available.
-        if (UserSession.getCurrentUser() != null) {
-            String saved = UserSession.getCurrentUser().getSelectedRestrictions();
-            if (saved != null && !saved.trim().isEmpty()) {
-                List<String> savedList = Arrays.asList(saved.split(","));
-                optionsPanel.setSelectedOptions(savedList);
-                selectedRestrictions.clear();
-                selectedRestrictions.addAll(savedList);
+        // Options are filled in once the allergens have loaded.
+        PagedSearchPanel optionsPanel = new PagedSearchPanel(new String[0]);
+        SwingAsync.onEdt(track(AsyncDAO.getAllergens()), restrictionList -> {
+            optionsPanel.updateOptions(restrictionList.toArray(new String[0]));
+
+            // Pre-select saved restrictions if available.
+            if (session != null) {
+                PreferenceSet saved = session.getPreferences().getRestrictions();
+                if (!saved.isEmpty()) {
+                    optionsPanel.setSelectedOptions(saved);
+                    selectedRestrictions.clear();
+                    selectedRestrictions.addAll(saved);
+                }
             }
-        }
+        }, this::showLoadError);
 
         panel.add(optionsPanel, BorderLayout.CENTER);
 
@@ -358,26 +420,23 @@ public class FoodFinderFrame extends JFrame {
         JButton continueButton = new JButton("Continue");
         styleButton(backButton);
         styleButton(continueButton);
-        backButton.addActionListener(e -> {
-            saveUserPreferences();
-            currentStep--;
-            cardLayout.show(cardPanel, getCardName(currentStep));
-            updateProgressLabels();
-        });
+        backButton.addActionListener(e -> navigateBack());
         continueButton.addActionListener(e -> {
             List<String> sel = optionsPanel.getSelectedOptions();
             selectedRestrictions.clear();
             selectedRestrictions.addAll(sel);
             saveUserPreferences();
-            // Update food item options based on selections.
-            List<String> foodList = MenuDAO.getFilteredFoodItems(selectedCuisines, selectedMealTypes, selectedRestrictions);
-            if (foodOptionsPanel != null) {
-                foodOptionsPanel.updateOptions(foodList.toArray(new String[0]));
-            }
-            foodContinueButton.setEnabled(!foodList.isEmpty());
             currentStep++;
             cardLayout.show(cardPanel, getCardName(currentStep));
             updateProgressLabels();
+            // Update food item options based on selections.
+            foodOptionsPanel.updateOptions(new String[0]);
+            foodContinueButton.setEnabled(false);
+            loadForStep(AsyncDAO.getFilteredFoodItems(new ArrayList<>(selectedCuisines),
+                    new ArrayList<>(selectedMealTypes), new ArrayList<>(selectedRestrictions)), foodList -> {
+                foodOptionsPanel.updateOptions(foodList.toArray(new String[0]));
+                foodContinueButton.setEnabled(!foodList.isEmpty());
+            });
         });
         buttonPanel.add(backButton);
         buttonPanel.add(continueButton);
@@ -398,14 +457,12 @@ public class FoodFinderFrame extends JFrame {
         // Create the PagedSearchPanel for food items.
         foodOptionsPanel = new PagedSearchPanel(new String[0]);
         // Pre-select stored food items if available.
-        if (UserSession.getCurrentUser() != null) {
-            String saved = UserSession.getCurrentUser().getSelectedFoodItems();
-//            System.out.println("'" + saved);
-            if (saved != null && !saved.trim().isEmpty()) {
-                List<String> savedList = Arrays.asList(saved.split(","));
-                foodOptionsPanel.setSelectedOptions(savedList);
+        if (session != null) {
+            PreferenceSet saved = session.getPreferences().getFoodItems();
+            if (!saved.isEmpty()) {
+                foodOptionsPanel.setSelectedOptions(saved);
                 selectedFoodItems.clear();
-                selectedFoodItems.addAll(savedList);
+                selectedFoodItems.addAll(saved);
             }
         }
         panel.add(foodOptionsPanel, BorderLayout.CENTER);
@@ -416,12 +473,7 @@ public class FoodFinderFrame extends JFrame {
         foodContinueButton = new JButton("Continue");
         styleButton(backButton);
         styleButton(foodContinueButton);
-        backButton.addActionListener(e -> {
-            saveUserPreferences();
-            currentStep--;
-            cardLayout.show(cardPanel, getCardName(currentStep));
-            updateProgressLabels();
-        });
+        backButton.addActionListener(e -> navigateBack());
         foodContinueButton.addActionListener(e -> {
             List<String> sel = foodOptionsPanel.getSelectedOptions();
             if (sel.isEmpty()) {
@@ -430,9 +482,9 @@ public class FoodFinderFrame extends JFrame {
                 selectedFoodItems.clear();
                 selectedFoodItems.addAll(sel);
                 saveUserPreferences();
-                updateResultsPanel();
                 currentStep++;
                 cardLayout.show(cardPanel, "results");
+                updateResultsPanel();
             }
         });
         buttonPanel.add(backButton);
@@ -446,9 +498,9 @@ public class FoodFinderFrame extends JFrame {
         panel.setBackground(white);
         panel.setBorder(new EmptyBorder(20, 20, 20, 20));
 
-        JTextField searchField = new JTextField();
-        searchField.setFont(optionFont);
-        panel.add(searchField, BorderLayout.NORTH);
+        resultsSearchField = new JTextField();
+        resultsSearchField.setFont(optionFont);
+        panel.add(resultsSearchField, BorderLayout.NORTH);
 
         resultsList = new JList<>();
         resultsList.setCellRenderer(new ResultsListCellRenderer());
@@ -459,28 +511,48 @@ public class FoodFinderFrame extends JFrame {
                 Restaurant clicked = resultsList.getSelectedValue();
                 if (clicked != null) {
                     if (selectedRestaurant != null && selectedRestaurant.equals(clicked)) {
-                        updateMenusPanel(clicked);
-                        cardLayout.show(cardPanel, "menus");
+                        loadForStep(AsyncDAO.getMenusForRestaurant(clicked.id), menus -> {
+                            updateMenusPanel(clicked, menus);
+                            cardLayout.show(cardPanel, "menus");
+                        });
                     } else {
                         selectedRestaurant = clicked;
+                        resultsWaypoints.getRenderer().setSelectedRestaurant(clicked.id);
                         resultsMapViewer.setAddressLocation(new RestaurantWaypoint(clicked).getPosition());
                         resultsMapViewer.setZoom(3);
+                        resultsMapViewer.repaint();
                     }
                 }
             }
         });
         JScrollPane listScrollPane = new JScrollPane(resultsList);
 
-        resultsMapViewer = MapUtils.createMapViewer(allRestaurants);
+        resultsMapViewer = MapUtils.createMapViewer(new ArrayList<>());
+        showWaypoints(allRestaurants);
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, listScrollPane, resultsMapViewer);
         splitPane.setDividerLocation(300);
         panel.add(splitPane, BorderLayout.CENTER);
 
+        // Re-filter the list as the map is panned or zoomed when limited to the visible area.
+        resultsMapViewer.addPropertyChangeListener(evt -> {
+            String property = evt.getPropertyName();
+            if (viewportOnlyCheckBox.isSelected()
+                    && ("zoom".equals(property) || "center".equals(property) || "centerPosition".equals(property))) {
+                refreshResultsList();
+            }
+        });
+
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         buttonPanel.setBackground(white);
+        viewportOnlyCheckBox = new JCheckBox("Only show restaurants in map view");
+        viewportOnlyCheckBox.setFont(optionFont.deriveFont(16f));
+        viewportOnlyCheckBox.setBackground(white);
+        viewportOnlyCheckBox.addActionListener(e -> refreshResultsList());
+        buttonPanel.add(viewportOnlyCheckBox);
         JButton startOverButton = new JButton("Start Over");
         styleButton(startOverButton);
         startOverButton.addActionListener(e -> {
+            cancelPendingTask();
             saveUserPreferences();
             currentStep = 0;
             selectedCuisines.clear();
@@ -493,53 +565,74 @@ public class FoodFinderFrame extends JFrame {
         buttonPanel.add(startOverButton);
         panel.add(buttonPanel, BorderLayout.SOUTH);
 
-        searchField.getDocument().addDocumentListener(new DocumentListener() {
-            private void filterList() {
-                String filter = searchField.getText().trim().toLowerCase();
-                DefaultListModel<Restaurant> filteredModel = new DefaultListModel<>();
-                for (Restaurant r : currentValidRestaurants) {
-                    if (r.name.toLowerCase().contains(filter)) {
-                        filteredModel.addElement(r);
-                    }
-                }
-                resultsList.setModel(filteredModel);
-            }
-            public void insertUpdate(DocumentEvent e) { filterList(); }
-            public void removeUpdate(DocumentEvent e) { filterList(); }
-            public void changedUpdate(DocumentEvent e) { filterList(); }
+        resultsSearchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { refreshResultsList(); }
+            public void removeUpdate(DocumentEvent e) { refreshResultsList(); }
+            public void changedUpdate(DocumentEvent e) { refreshResultsList(); }
         });
         return panel;
     }
 
+    /**
+     * Rebuilds the results list from the current search results, applying the name filter
+     * and, if enabled, limiting it to restaurants inside the visible map area.
+     */
+    private void refreshResultsList() {
+        String filter = resultsSearchField.getText().trim().toLowerCase();
+        Set<Integer> visibleIds = null;
+        // Runs on the EDT, so only an already loaded catalog is used; until then the list is unfiltered.
+        CatalogSnapshot snapshot = Catalog.loadedSnapshot();
+        if (viewportOnlyCheckBox.isSelected() && snapshot != null) {
+            double[] bounds = MapUtils.getVisibleBounds(resultsMapViewer);
+            visibleIds = new HashSet<>();
+            for (Restaurant r : snapshot.spatialIndex().inBoundingBox(bounds[0], bounds[1], bounds[2], bounds[3])) {
+                visibleIds.add(r.id);
+            }
+        }
+        DefaultListModel<Restaurant> filteredModel = new DefaultListModel<>();
+        for (Restaurant r : currentValidRestaurants) {
+            if (r.name.toLowerCase().contains(filter) && (visibleIds == null || visibleIds.contains(r.id))) {
+                filteredModel.addElement(r);
+            }
+        }
+        resultsList.setModel(filteredModel);
+    }
+
     private void updateResultsPanel() {
-        List<Restaurant> filteredRestaurants = RestaurantDAO.getFilteredRestaurants(
-                selectedCuisines, selectedMealTypes, selectedFoodItems, selectedRestrictions);
-        currentValidRestaurants = filteredRestaurants;
-        DefaultListModel<Restaurant> listModel = new DefaultListModel<>();
+        currentValidRestaurants = new ArrayList<>();
+        restaurantMatchingItems.clear();
+        resultsList.setModel(new DefaultListModel<>());
+        // Restaurants and their matching items, answered from the in-memory catalog.
+        loadForStep(AsyncDAO.getFilteredRestaurantsWithMatchingItems(new ArrayList<>(selectedCuisines),
+                new ArrayList<>(selectedMealTypes), new ArrayList<>(selectedFoodItems),
+                new ArrayList<>(selectedRestrictions)), this::showResults);
+    }
+
+    private void showResults(Map<Restaurant, List<String>> results) {
+        currentValidRestaurants = new ArrayList<>(results.keySet());
+        restaurantMatchingItems.clear();
         if (currentValidRestaurants.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No matching restaurants found.", "Results", JOptionPane.INFORMATION_MESSAGE);
         } else {
-            for (Restaurant r : currentValidRestaurants) {
-                List<String> matchingItems = RestaurantDAO.getMatchingItemsForRestaurant(
-                        r.id, selectedMealTypes, selectedFoodItems, selectedRestrictions);
-                restaurantMatchingItems.put(r, String.join(", ", matchingItems));
-                listModel.addElement(r);
+            for (Map.Entry<Restaurant, List<String>> entry : results.entrySet()) {
+                restaurantMatchingItems.put(entry.getKey(), String.join(", ", entry.getValue()));
             }
         }
-        resultsList.setModel(listModel);
+        refreshResultsList();
 
         // Update the map overlay to display only the restaurants in the results list.
-        Set<RestaurantWaypoint> restaurantWaypoints = new HashSet<>();
-        for (Restaurant r : currentValidRestaurants) {
-            restaurantWaypoints.add(new RestaurantWaypoint(r));
-        }
-        WaypointPainter<RestaurantWaypoint> waypointPainter = new WaypointPainter<>();
-        waypointPainter.setWaypoints(restaurantWaypoints);
-        waypointPainter.setRenderer(new RestaurantWaypointRenderer());
-        resultsMapViewer.setOverlayPainter(waypointPainter);
+        showWaypoints(currentValidRestaurants);
+    }
+
+    /**
+     * Replaces the results map overlay, keeping the selected restaurant marked.
+     */
+    private void showWaypoints(List<Restaurant> restaurants) {
+        resultsWaypoints = MapUtils.setRestaurantWaypoints(resultsMapViewer, restaurants);
+        resultsWaypoints.getRenderer().setSelectedRestaurant(selectedRestaurant == null ? -1 : selectedRestaurant.id);
     }
 
-    private void updateMenusPanel(Restaurant restaurant) {
+    private void updateMenusPanel(Restaurant restaurant, List<Menu> menus) {
         JPanel menusPanel = new JPanel(new BorderLayout(10, 10));
         menusPanel.setBackground(white);
         menusPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -549,7 +642,6 @@ public class FoodFinderFrame extends JFrame {
         titleLabel.setForeground(darkGray);
         menusPanel.add(titleLabel, BorderLayout.NORTH);
 
-        List<Menu> menus = MenuDAO.getMenusForRestaurant(restaurant.id);
         JPanel menuListPanel = new JPanel(new GridLayout(0, 1, 10, 10));
         for (Menu menu : menus) {
             JButton btn = new JButton(menu.type);
@@ -642,20 +734,9 @@ public class FoodFinderFrame extends JFrame {
         titleLabel.setForeground(darkGray);
         recipePanel.add(titleLabel, BorderLayout.NORTH);
 
-        String recipeText = item.recipe;
-        for (String allergen : selectedRestrictions) {
-            Pattern pattern = Pattern.compile("(?i)" + Pattern.quote(allergen));
-            Matcher matcher = pattern.matcher(recipeText);
-            StringBuffer sb = new StringBuffer();
-            while (matcher.find()) {
-                matcher.appendReplacement(sb, "<span style='color:red;'>" + matcher.group() + "</span>");
-            }
-            matcher.appendTail(sb);
-            recipeText = sb.toString();
-        }
         JTextPane recipePane = new JTextPane();
         recipePane.setContentType("text/html");
-        recipePane.setText("<html><body style='font-family:Segoe UI; font-size:16px;'>" + recipeText + "</body></html>");
+        recipePane.setText(highlightAllergens(item.recipe, KeywordMatcher.forKeywords(selectedRestrictions)));
         recipePane.setEditable(false);
         recipePane.setBackground(white);
         JScrollPane scroll = new JScrollPane(recipePane);
@@ -672,6 +753,38 @@ public class FoodFinderFrame extends JFrame {
         cardPanel.add(recipePanel, "recipe");
     }
 
+    /**
+     * Renders the recipe as HTML with every occurrence of a restricted allergen in red,
+     * in one pass over the text.
+     */
+    private static String highlightAllergens(String recipe, KeywordMatcher allergens) {
+        int[] matches = allergens.find(recipe);
+        StringBuilder html = new StringBuilder(recipe.length() + 64 + matches.length * 16);
+        html.append("<html><body style='font-family:Segoe UI; font-size:16px;'>");
+        int last = 0;
+        for (int m = 0; m < matches.length; m += 2) {
+            appendEscaped(html, recipe, last, matches[m]);
+            html.append("<span style='color:red;'>");
+            appendEscaped(html, recipe, matches[m], matches[m + 1]);
+            html.append("</span>");
+            last = matches[m + 1];
+        }
+        appendEscaped(html, recipe, last, recipe.length());
+        return html.append("</body></html>").toString();
+    }
+
+    private static void appendEscaped(StringBuilder html, String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': html.append("&lt;"); break;
+                case '>': html.append("&gt;"); break;
+                case '&': html.append("&amp;"); break;
+                default: html.append(c);
+            }
+        }
+    }
+
     private void styleButton(JButton button) {
         button.setFont(optionFont);
         button.setBackground(accentColor);
@@ -681,6 +794,7 @@ public class FoodFinderFrame extends JFrame {
 
     private void navigateBack() {
         if (currentStep > 0) {
+            cancelPendingTask();
             saveUserPreferences();
             currentStep--;
             cardLayout.show(cardPanel, getCardName(currentStep));
@@ -0,0 +1,158 @@
+package FoodFinder.ui;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * A fixed grid of toggle cells showing a window onto a larger list of options.
+ *
+ * The cells are created once and bound to the model positions [firstIndex, firstIndex + cellCount).
+ * Paging or a model change rebinds the cells in place: only cells whose text or selection
+ * actually changed are touched, so Swing repaints just those cells and nothing is
+ * allocated or re-laid out.
+ */
+public class OptionGrid extends JPanel {
+    public static final Font CELL_FONT = new Font("Segoe UI", Font.PLAIN, 24);
+    private static final Color SELECTED_BACKGROUND = new Color(0xFF6666);
+    private static final Color SELECTED_FOREGROUND = Color.WHITE;
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color FOREGROUND = Color.DARK_GRAY;
+
+    // Bound state of a cell.
+    private static final byte BLANK = 0;
+    private static final byte UNSELECTED = 1;
+    private static final byte SELECTED = 2;
+
+    /**
+     * The options the grid pages through.
+     */
+    public interface Model {
+        int size();
+
+        String label(int index);
+
+        boolean isSelected(int index);
+
+        void setSelected(int index, boolean selected);
+    }
+
+    private final JToggleButton[] cells;
+    private final String[] cellText;
+    private final byte[] cellState;
+    private Model model;
+    private int firstIndex = 0;
+
+    public OptionGrid(int rows, int columns, Model model) {
+        super(new GridLayout(rows, columns, 15, 15));
+        this.model = model;
+        cells = new JToggleButton[rows * columns];
+        cellText = new String[cells.length];
+        cellState = new byte[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            JToggleButton cell = new JToggleButton();
+            cell.setFont(CELL_FONT);
+            cell.setFocusPainted(false);
+            final int c = i;
+            cell.addActionListener(e -> {
+                if (cellState[c] != BLANK) {
+                    boolean selected = cell.isSelected();
+                    this.model.setSelected(firstIndex + c, selected);
+                    cellState[c] = selected ? SELECTED : UNSELECTED;
+                    paintState(cell, selected);
+                }
+            });
+            blank(cell);
+            cells[i] = cell;
+            add(cell);
+        }
+        refresh();
+    }
+
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * Shows the model from the given position onward.
+     *
+     * @return the number of cells that changed
+     */
+    public int setFirstIndex(int firstIndex) {
+        this.firstIndex = firstIndex;
+        return refresh();
+    }
+
+    public void setModel(Model model) {
+        this.model = model;
+        this.firstIndex = 0;
+        refresh();
+    }
+
+    /**
+     * Rebinds every cell to the model, touching only cells whose text or selection changed.
+     *
+     * @return the number of cells that changed
+     */
+    public int refresh() {
+        int size = model.size();
+        int changed = 0;
+        for (int c = 0; c < cells.length; c++) {
+            int index = firstIndex + c;
+            JToggleButton cell = cells[c];
+            if (index >= size) {
+                if (cellState[c] != BLANK) {
+                    blank(cell);
+                    cellText[c] = null;
+                    cellState[c] = BLANK;
+                    changed++;
+                }
+                continue;
+            }
+            String text = model.label(index);
+            boolean selected = model.isSelected(index);
+            byte state = selected ? SELECTED : UNSELECTED;
+            boolean cellChanged = false;
+            if (cellState[c] == BLANK) {
+                cell.setEnabled(true);
+                cell.setContentAreaFilled(true);
+                cell.setBorderPainted(true);
+                cellChanged = true;
+            }
+            if (!text.equals(cellText[c])) {
+                cell.setText(text);
+                cellText[c] = text;
+                cellChanged = true;
+            }
+            if (state != cellState[c]) {
+                cell.setSelected(selected);
+                paintState(cell, selected);
+                cellState[c] = state;
+                cellChanged = true;
+            }
+            if (cellChanged) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Empties a cell without hiding it, so the grid keeps its shape and is not re-laid out.
+     */
+    private static void blank(JToggleButton cell) {
+        cell.setText("");
+        cell.setSelected(false);
+        cell.setEnabled(false);
+        cell.setContentAreaFilled(false);
+        cell.setBorderPainted(false);
+    }
+
+    private static void paintState(JToggleButton cell, boolean selected) {
+        cell.setBackground(selected ? SELECTED_BACKGROUND : BACKGROUND);
+        cell.setForeground(selected ? SELECTED_FOREGROUND : FOREGROUND);
+    }
+}
@@ -8,47 +8,68 @@ import java.util.*;
 import java.util.List;
 
 public class PagedSearchPanel extends JPanel {
+    private static final int FILTER_DELAY_MS = 150;
+
     private List<String> originalOptions;
-    private List<String> filteredOptions;
+    private String[] optionKeys;        // lowercased originalOptions, computed once per option list
+    private int[] filteredIndices;      // indices into originalOptions matching lastQuery
+    private int filteredCount;
+    private String lastQuery = "";
     private Map<String, Boolean> selectionMap;
     private int currentPage = 0;
     private final int itemsPerPage = 12;
 
     private JTextField searchField;
-    private JPanel gridPanel;
+    private javax.swing.Timer filterTimer;
+    private CardLayout gridCards;
+    private JPanel gridContainer;
+    private OptionGrid grid;
     private JButton leftButton, rightButton;
 
     public PagedSearchPanel(String[] options) {
-        originalOptions = new ArrayList<>(Arrays.asList(options));
-        filteredOptions = new ArrayList<>(originalOptions);
+        setOptionList(new ArrayList<>(Arrays.asList(options)));
         selectionMap = new HashMap<>();
         for (String opt : originalOptions) {
             selectionMap.put(opt, false);
         }
         setLayout(new BorderLayout(10, 10));
 
+        // Re-filter once typing pauses rather than on every keystroke.
+        filterTimer = new javax.swing.Timer(FILTER_DELAY_MS, e -> updateFilter());
+        filterTimer.setRepeats(false);
+
         searchField = new JTextField();
-        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 24));
+        searchField.setFont(OptionGrid.CELL_FONT);
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            public void insertUpdate(DocumentEvent e) { updateFilter(); }
-            public void removeUpdate(DocumentEvent e) { updateFilter(); }
-            public void changedUpdate(DocumentEvent e) { updateFilter(); }
+            public void insertUpdate(DocumentEvent e) { filterTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { filterTimer.restart(); }
+            public void changedUpdate(DocumentEvent e) { filterTimer.restart(); }
         });
         add(searchField, BorderLayout.NORTH);
 
-        gridPanel = new JPanel(new GridLayout(3, 4, 15, 15));
-        add(gridPanel, BorderLayout.CENTER);
+        // The grid pages through the filtered options with a fixed set of cells.
+        grid = new OptionGrid(3, 4, new OptionGrid.Model() {
+            public int size() { return filteredCount; }
+            public String label(int index) { return originalOptions.get(filteredIndices[index]); }
+            public boolean isSelected(int index) { return selectionMap.getOrDefault(label(index), false); }
+            public void setSelected(int index, boolean selected) { selectionMap.put(label(index), selected); }
+        });
+        gridCards = new CardLayout();
+        gridContainer = new JPanel(gridCards);
+        gridContainer.add(grid, "grid");
+        gridContainer.add(new JLabel("No results found", SwingConstants.CENTER), "empty");
+        add(gridContainer, BorderLayout.CENTER);
 
         JPanel arrowPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         leftButton = new JButton("<");
         rightButton = new JButton(">");
-        leftButton.setFont(new Font("Segoe UI", Font.PLAIN, 24));
-        rightButton.setFont(new Font("Segoe UI", Font.PLAIN, 24));
+        leftButton.setFont(OptionGrid.CELL_FONT);
+        rightButton.setFont(OptionGrid.CELL_FONT);
         leftButton.addActionListener(e -> {
             if (currentPage > 0) { currentPage--; refreshGrid(); }
         });
         rightButton.addActionListener(e -> {
-            if ((currentPage + 1) * itemsPerPage < filteredOptions.size()) { currentPage++; refreshGrid(); }
+            if ((currentPage + 1) * itemsPerPage < filteredCount) { currentPage++; refreshGrid(); }
         });
         arrowPanel.add(leftButton);
         arrowPanel.add(rightButton);
@@ -57,55 +78,62 @@ public class PagedSearchPanel extends JPanel {
         refreshGrid();
     }
 
+    /**
+     * Replaces the option list, caching its lowercased keys and resetting the filter to
+     * match everything.
+     */
+    private void setOptionList(List<String> options) {
+        originalOptions = options;
+        optionKeys = new String[options.size()];
+        filteredIndices = new int[options.size()];
+        for (int i = 0; i < optionKeys.length; i++) {
+            optionKeys[i] = options.get(i).toLowerCase();
+            filteredIndices[i] = i;
+        }
+        filteredCount = optionKeys.length;
+        lastQuery = "";
+    }
+
+    /**
+     * Applies the search text. When the new query contains the previous one, every match
+     * must already be in the previous result, so only that result is rescanned.
+     */
     private void updateFilter() {
         String text = searchField.getText().trim().toLowerCase();
-        filteredOptions.clear();
-        for (String opt : originalOptions) {
-            if (opt.toLowerCase().contains(text)) {
-                filteredOptions.add(opt);
+        if (text.equals(lastQuery)) {
+            return;
+        }
+        if (text.contains(lastQuery)) {
+            int kept = 0;
+            for (int i = 0; i < filteredCount; i++) {
+                int idx = filteredIndices[i];
+                if (optionKeys[idx].contains(text)) {
+                    filteredIndices[kept++] = idx;
+                }
+            }
+            filteredCount = kept;
+        } else {
+            filteredCount = 0;
+            for (int idx = 0; idx < optionKeys.length; idx++) {
+                if (optionKeys[idx].contains(text)) {
+                    filteredIndices[filteredCount++] = idx;
+                }
             }
         }
+        lastQuery = text;
         currentPage = 0;
         refreshGrid();
     }
 
     private void refreshGrid() {
-        gridPanel.removeAll();
-        int start = currentPage * itemsPerPage;
-        int end = Math.min(start + itemsPerPage, filteredOptions.size());
-        if (filteredOptions.isEmpty()) {
-            gridPanel.setLayout(new BorderLayout());
-            gridPanel.add(new JLabel("No results found", SwingConstants.CENTER), BorderLayout.CENTER);
+        if (filteredCount == 0) {
+            gridCards.show(gridContainer, "empty");
         } else {
-            gridPanel.setLayout(new GridLayout(3, 4, 15, 15));
-            for (int i = start; i < end; i++) {
-                String option = filteredOptions.get(i);
-                JToggleButton btn = new JToggleButton(option);
-                btn.setFont(new Font("Segoe UI", Font.PLAIN, 24));
-                btn.setFocusPainted(false);
-                btn.setBackground(Color.WHITE);
-                btn.setForeground(Color.DARK_GRAY);
-                boolean selected = selectionMap.getOrDefault(option, false);
-                btn.setSelected(selected);
-                btn.setBackground(selected ? new Color(0xFF6666) : Color.WHITE);
-                btn.setForeground(selected ? Color.WHITE : Color.DARK_GRAY);
-                btn.addItemListener(e -> {
-                    boolean isSelected = btn.isSelected();
-                    selectionMap.put(option, isSelected);
-                    btn.setBackground(isSelected ? new Color(0xFF6666) : Color.WHITE);
-                    btn.setForeground(isSelected ? Color.WHITE : Color.DARK_GRAY);
-                });
-                gridPanel.add(btn);
-            }
-            int itemsAdded = end - start;
-            for (int i = itemsAdded; i < itemsPerPage; i++) {
-                gridPanel.add(new JPanel());
-            }
+            gridCards.show(gridContainer, "grid");
+            grid.setFirstIndex(currentPage * itemsPerPage);
         }
         leftButton.setEnabled(currentPage > 0);
-        rightButton.setEnabled((currentPage + 1) * itemsPerPage < filteredOptions.size());
-        gridPanel.revalidate();
-        gridPanel.repaint();
+        rightButton.setEnabled((currentPage + 1) * itemsPerPage < filteredCount);
     }
 
     /**
@@ -123,9 +151,13 @@ public class PagedSearchPanel extends JPanel {
             // If the option existed before, retain its selection; otherwise, default to false.
             newSelectionMap.put(opt, selectionMap.getOrDefault(opt, false));
         }
-        originalOptions = newOptions;
-        filteredOptions = new ArrayList<>(originalOptions);
+        setOptionList(newOptions);
         selectionMap = newSelectionMap;
+        // Re-apply any search text already typed against the new options.
+        if (searchField != null) {
+            filterTimer.stop();
+            updateFilter();
+        }
         currentPage = 0;
         refreshGrid();
     }
@@ -141,13 +173,13 @@ public class PagedSearchPanel extends JPanel {
     }
 
     /**
-     * Sets the selection state based on a list of options.
+     * Sets the selection state based on a collection of options.
      * Options in selectedOptions will be marked as selected (true)
      * and all other options will be unselected.
      *
-     * @param selectedOptions the list of options to be selected
+     * @param selectedOptions the options to be selected
      */
-    public void setSelectedOptions(List<String> selectedOptions) {
+    public void setSelectedOptions(Collection<String> selectedOptions) {
         for (String opt : originalOptions) {
             if (selectedOptions.contains(opt)) {
                 selectionMap.put(opt, true);
@@ -1,7 +1,6 @@
 package FoodFinder.ui;
 
-import FoodFinder.dao.UserProfileDAO;
-import FoodFinder.domain.UserProfile;
+import FoodFinder.dao.AsyncDAO;
 import FoodFinder.session.UserSession;
 import javax.swing.*;
 import java.awt.*;
@@ -123,19 +122,31 @@ public class SignUpPanel extends JPanel {
                 );
                 return;
             }
-            UserProfile user = UserProfileDAO.signUp(username, password);
-            if (user != null) {
-                // For sign-up, the new user will proceed through the normal selection process.
-                UserSession.setCurrentUser(user);
-                parentFrame.showPanel("userLogin");
-            } else {
+            // Sign up off the EDT; the button stays disabled until the answer arrives.
+            signUpButton.setEnabled(false);
+            SwingAsync.onEdt(AsyncDAO.signUp(username, password), user -> {
+                signUpButton.setEnabled(true);
+                if (user != null) {
+                    // For sign-up, the new user will proceed through the normal selection process.
+                    UserSession.setCurrentUser(user);
+                    parentFrame.showPanel("userLogin");
+                } else {
+                    JOptionPane.showMessageDialog(
+                            SignUpPanel.this,
+                            "Sign up failed. Username may already exist.",
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }, error -> {
+                signUpButton.setEnabled(true);
                 JOptionPane.showMessageDialog(
                         SignUpPanel.this,
-                        "Sign up failed. Username may already exist.",
+                        "Error contacting the database: " + error.getMessage(),
                         "Error",
                         JOptionPane.ERROR_MESSAGE
                 );
-            }
+            });
         });
 
         // Action: go back to the user login panel.
@@ -0,0 +1,46 @@
+package FoodFinder.ui;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Hands the result of a background future back to the Swing event dispatch thread.
+ */
+public class SwingAsync {
+
+    /**
+     * Runs onSuccess or onError on the EDT once the future completes. Nothing runs if the
+     * future was cancelled.
+     *
+     * @return the same future, for chaining or later cancellation
+     */
+    public static <T> CompletableFuture<T> onEdt(CompletableFuture<T> future,
+                                                 Consumer<? super T> onSuccess,
+                                                 Consumer<Throwable> onError) {
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                onError.accept(unwrap(error));
+            } else {
+                onSuccess.accept(value);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Strips the CompletionException/ExecutionException wrappers added by CompletableFuture.
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
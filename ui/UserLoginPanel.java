@@ -1,7 +1,6 @@
 package FoodFinder.ui;
 
-import FoodFinder.dao.UserProfileDAO;
-import FoodFinder.domain.UserProfile;
+import FoodFinder.dao.AsyncDAO;
 import FoodFinder.session.UserSession;
 import javax.swing.*;
 import java.awt.*;
@@ -131,18 +130,30 @@ public class UserLoginPanel extends JPanel {
                 );
                 return;
             }
-            UserProfile user = UserProfileDAO.authenticate(username, password);
-            if (user != null) {
-                UserSession.setCurrentUser(user);
-                parentFrame.loadSearchPanel();
-            } else {
+            // Authenticate off the EDT; the button stays disabled until the answer arrives.
+            loginButton.setEnabled(false);
+            SwingAsync.onEdt(AsyncDAO.authenticateUser(username, password), user -> {
+                loginButton.setEnabled(true);
+                if (user != null) {
+                    UserSession.setCurrentUser(user);
+                    parentFrame.loadSearchPanel();
+                } else {
+                    JOptionPane.showMessageDialog(
+                            UserLoginPanel.this,
+                            "Invalid credentials.",
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }, error -> {
+                loginButton.setEnabled(true);
                 JOptionPane.showMessageDialog(
                         UserLoginPanel.this,
-                        "Invalid credentials.",
+                        "Error contacting the database: " + error.getMessage(),
                         "Error",
                         JOptionPane.ERROR_MESSAGE
                 );
-            }
+            });
         });
 
         // Action: go to sign-up panel.